@@ -2,8 +2,12 @@
 package com.qs.question_service.Controller;
 
 import com.qs.question_service.model.Question;
+import com.qs.question_service.model.QuestionPageDto;
+import com.qs.question_service.model.QuestionSearchPageDto;
+import com.qs.question_service.model.QuestionView;
 import com.qs.question_service.model.QuestionWrapper;
 import com.qs.question_service.model.Response;
+import com.qs.question_service.model.StratifiedSampleRequest;
 import com.qs.question_service.service.QuestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +32,33 @@ public class QuestionController {
         return questionService.getAllQuestions();
     }
 
+    // Filtered, keyset-paginated question pool. Pass nextCursor of a page as afterId to get the next one.
+    @GetMapping("/page")
+    public ResponseEntity<QuestionPageDto> getQuestionPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String difficultylevel,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(defaultValue = "50") int pageSize) {
+        log.info("Received request for question page: category={}, type={}, difficultylevel={}, afterId={}",
+                category, type, difficultylevel, afterId);
+        return questionService.getQuestionPage(category, type, difficultylevel, afterId, pageSize);
+    }
+
+    // Ranked full-text search, e.g. /search?q=java coll&category=Programming; pass nextPage as page for more.
+    @GetMapping("/search")
+    public ResponseEntity<QuestionSearchPageDto> searchQuestions(
+            @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String difficultylevel,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int pageSize) {
+        log.info("Received question search: q={}, category={}, type={}, difficultylevel={}, page={}",
+                q, category, type, difficultylevel, page);
+        return questionService.searchQuestions(q, category, type, difficultylevel, page, pageSize);
+    }
+
     @GetMapping("/category/{category}")
     public ResponseEntity<List<Question>> getQuestionByCategory(@PathVariable String category){
         log.info("Received request for questions by category: {}", category);
@@ -64,10 +95,19 @@ public class QuestionController {
         return questionService.getQuestionsForQuiz(categoryName , numQuestions);
     }
 
+    // Random questions per difficultylevel/type stratum, e.g. {"categoryName":"Java","strata":[{"difficultylevel":"easy","count":10},{"difficultylevel":"hard","count":5}]}
+    @PostMapping("/generate/stratified")
+    public ResponseEntity<List<Integer>> getStratifiedQuestionsForQuiz(@RequestBody StratifiedSampleRequest request) {
+        log.info("Received request to generate stratified questions: {}", request);
+        return questionService.getStratifiedQuestionsForQuiz(request);
+    }
+
+    // view=STUDENT leaves out the right answer, view=GRADING the question text; results follow the order of the IDs.
     @PostMapping("/getQuestions")
-    public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(@RequestBody List<Integer> questionIds){
-        log.info("Received request to get question details for IDs: {}", questionIds);
-        return questionService.getQuestionsFromId(questionIds);
+    public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(@RequestBody List<Integer> questionIds,
+                                                                    @RequestParam(defaultValue = "FULL") QuestionView view){
+        log.info("Received request to get question details ({} view) for {} IDs", view, questionIds.size());
+        return questionService.getQuestionsFromId(questionIds, view);
     }
 
     @PostMapping("/getScore")
@@ -75,4 +115,11 @@ public class QuestionController {
         log.info("Received request to calculate score for {} responses", responses.size());
         return questionService.getScore(responses);
     }
-}
\ No newline at end of file
+
+    // Scores many answer sheets in one round trip; returns one score per sheet, in request order.
+    @PostMapping("/getScores")
+    public ResponseEntity<List<Integer>> getScores(@RequestBody List<List<Response>> answerSheets){
+        log.info("Received request to calculate scores for {} answer sheets", answerSheets.size());
+        return questionService.getScores(answerSheets);
+    }
+}
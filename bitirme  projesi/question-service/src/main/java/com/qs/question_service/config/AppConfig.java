@@ -0,0 +1,35 @@
+package com.qs.question_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class AppConfig {
+
+    // Calls to other services never wait longer than these timeouts.
+    @Bean
+    public RestTemplate restTemplate(@Value("${question.http-client.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                     @Value("${question.http-client.read-timeout-ms:3000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
+    }
+
+    // Sends quiz_service cache invalidations off the request thread, one at a time.
+    @Bean(name = "quizServiceNotifierExecutor")
+    public ThreadPoolTaskExecutor quizServiceNotifierExecutor(
+            @Value("${quiz-service.notify-queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("quiz-service-notifier-");
+        executor.initialize();
+        return executor;
+    }
+}
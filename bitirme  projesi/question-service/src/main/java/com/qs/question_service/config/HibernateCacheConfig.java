@@ -0,0 +1,50 @@
+package com.qs.question_service.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+// Regions of the Hibernate second-level cache, held by Caffeine through JCache.
+// Entity and query results are bounded by entry count and expire after a TTL, so changes made
+// by another instance are picked up; writes through this instance invalidate them right away.
+// Update timestamps must outlive the query results they guard and are never evicted.
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String QUESTION_REGION = "question";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${question.cache.entity-max-size:50000}") long entityMaxSize,
+                                              @Value("${question.cache.query-max-size:1000}") long queryMaxSize,
+                                              @Value("${question.cache.ttl-minutes:10}") long ttlMinutes) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        long ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+        cacheManager.createCache(QUESTION_REGION, region(OptionalLong.of(entityMaxSize), OptionalLong.of(ttlNanos)));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(OptionalLong.of(queryMaxSize), OptionalLong.of(ttlNanos)));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, region(OptionalLong.empty(), OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(OptionalLong maximumSize, OptionalLong expireAfterWriteNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(expireAfterWriteNanos);
+        return configuration;
+    }
+}
@@ -0,0 +1,38 @@
+package com.qs.question_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Indexes behind the filtered question pool pages (filter column + id for the keyset order).
+// Hibernate does not manage the schema of this service, so they are created here.
+@Slf4j
+@Component
+public class QuestionIndexInitializer implements ApplicationRunner {
+
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_question_category_id ON question (category, id)",
+            "CREATE INDEX IF NOT EXISTS idx_question_type_id ON question (type, id)",
+            "CREATE INDEX IF NOT EXISTS idx_question_difficultylevel_id ON question (difficultylevel, id)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String sql : INDEXES) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                log.warn("Could not create question index ({}): {}", sql, e.getMessage());
+            }
+        }
+    }
+}
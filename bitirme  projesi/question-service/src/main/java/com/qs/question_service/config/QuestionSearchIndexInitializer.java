@@ -0,0 +1,43 @@
+package com.qs.question_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Full-text search over the question bank (see QuestionSearchDao): a stored tsvector column that
+// PostgreSQL keeps up to date on every write, and a GIN index on it. Title and question text weigh
+// more than the options. The 'simple' configuration does not stem, so Turkish and English
+// questions match the same way. Adding the column rewrites the table once.
+@Slf4j
+@Component
+public class QuestionSearchIndexInitializer implements ApplicationRunner {
+
+    private static final List<String> STATEMENTS = List.of(
+            "ALTER TABLE question ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+                    "setweight(to_tsvector('simple', coalesce(questiontitle, '') || ' ' || coalesce(title, '')), 'A') || " +
+                    "setweight(to_tsvector('simple', coalesce(option1, '') || ' ' || coalesce(option2, '') || ' ' || " +
+                    "coalesce(option3, '') || ' ' || coalesce(option4, '')), 'B')) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_question_search_vector ON question USING GIN (search_vector)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionSearchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String sql : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                log.warn("Could not prepare question search ({}): {}", sql, e.getMessage());
+                return; // The index needs the column
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.qs.question_service.dao;
+
+import com.qs.question_service.model.Question;
+
+import java.util.Collection;
+import java.util.List;
+
+// Lookups that go through the second-level cache before the database; mixed into QuestionDao.
+public interface QuestionCacheLookup {
+
+    // Found questions in the order of the IDs, read from the entity cache where present.
+    List<Question> findAllByIdCached(Collection<Integer> ids);
+}
@@ -0,0 +1,35 @@
+package com.qs.question_service.dao;
+
+import com.qs.question_service.model.Question;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// findAllById runs an IN query that bypasses the entity cache; multiLoad checks the cache
+// first and loads only the misses from the database, in batches.
+class QuestionCacheLookupImpl implements QuestionCacheLookup {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true) // Keeps the session open for the unwrap
+    public List<Question> findAllByIdCached(Collection<Integer> ids) {
+        List<Question> questions = entityManager.unwrap(Session.class)
+                .byMultipleIds(Question.class)
+                .with(CacheMode.NORMAL)
+                .withBatchSize(BATCH_SIZE)
+                .multiLoad(new ArrayList<>(ids));
+        questions.removeIf(Objects::isNull); // Unknown IDs come back as null
+        return questions;
+    }
+}
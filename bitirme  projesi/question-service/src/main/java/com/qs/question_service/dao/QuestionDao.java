@@ -1,13 +1,52 @@
 package com.qs.question_service.dao;
 
 import com.qs.question_service.model.Question;
+import com.qs.question_service.model.QuestionSummaryDto;
+import com.qs.question_service.model.QuestionWrapper;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface QuestionDao extends JpaRepository<Question, Integer> {
+public interface QuestionDao extends JpaRepository<Question, Integer>, QuestionCacheLookup {
+        // Cacheable queries keep their results in the query cache until a write to the question table.
+        @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
         List<Question> findByCategory(String category);
         @Query(value = "SELECT q.id FROM question q WHERE q.category=:category ORDER BY RANDOM() LIMIT :numQ",nativeQuery = true)
         List<Integer> findRandomQuestionsByCategory(String category, int numQ);
+
+        // Keyset page of the question pool; null filters match everything. Pass PageRequest.of(0, size).
+        @Query("SELECT new com.qs.question_service.model.QuestionSummaryDto(q.id, q.questiontitle, q.title, q.category, " +
+                "q.type, q.difficultylevel, q.points) FROM Question q " +
+                "WHERE q.id > :afterId " +
+                "AND (:category IS NULL OR q.category = :category) " +
+                "AND (:type IS NULL OR q.type = :type) " +
+                "AND (:difficultylevel IS NULL OR q.difficultylevel = :difficultylevel) " +
+                "ORDER BY q.id")
+        List<QuestionSummaryDto> findSummaryPage(@Param("afterId") Integer afterId, @Param("category") String category,
+                                                 @Param("type") String type, @Param("difficultylevel") String difficultylevel,
+                                                 Pageable pageable);
+
+        // Projections behind /question/getQuestions, one per QuestionView. Callers chunk large ID lists;
+        // a quiz asks for the same chunks every time, so they are served from the query cache.
+        @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+        @Query("SELECT new com.qs.question_service.model.QuestionWrapper(q.option4, q.option3, q.option2, q.option1, " +
+                "COALESCE(q.points, 0), q.questiontitle, q.id, q.type, q.rightanswer) FROM Question q WHERE q.id IN :ids")
+        List<QuestionWrapper> findFullViewByIdIn(@Param("ids") Collection<Integer> ids);
+
+        @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+        @Query("SELECT new com.qs.question_service.model.QuestionWrapper(q.option4, q.option3, q.option2, q.option1, " +
+                "COALESCE(q.points, 0), q.questiontitle, q.id, q.type, CAST(NULL AS String)) FROM Question q WHERE q.id IN :ids")
+        List<QuestionWrapper> findStudentViewByIdIn(@Param("ids") Collection<Integer> ids);
+
+        @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+        @Query("SELECT new com.qs.question_service.model.QuestionWrapper(q.option4, q.option3, q.option2, q.option1, " +
+                "COALESCE(q.points, 0), CAST(NULL AS String), q.id, q.type, q.rightanswer) FROM Question q WHERE q.id IN :ids")
+        List<QuestionWrapper> findGradingViewByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,80 @@
+package com.qs.question_service.dao;
+
+import com.qs.question_service.model.QuestionSummaryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.DataClassRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Ranked full-text search on question.search_vector (see QuestionSearchIndexInitializer).
+// Ranking reads the tsvector of every row it orders, so only the newest max-candidates matches are
+// ranked: queries specific enough to match fewer rows are ranked exactly, while a term found in
+// most of the bank stays fast and returns the best of its newest matches. Such results are marked
+// truncated, so the client can ask for a narrower query. Filters are only added to the SQL when
+// set, so each combination gets its own plan (with a category filter, the (category, id) index is
+// walked backwards).
+@Repository
+public class QuestionSearchDao {
+
+    private static final RowMapper<QuestionSummaryDto> ROW_MAPPER = new DataClassRowMapper<>(QuestionSummaryDto.class);
+
+    /** A page of results; {@code truncated} if the query matched more than max-candidates questions. */
+    public record SearchPage(List<QuestionSummaryDto> items, boolean truncated) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxCandidates;
+
+    public QuestionSearchDao(NamedParameterJdbcTemplate jdbcTemplate,
+                             @Value("${question.search.max-candidates:2000}") int maxCandidates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Questions matching every term, best rank first (newest first on ties), among the newest
+     * max-candidates matches. Each term also matches as a prefix. Terms must only contain letters
+     * and digits; they are passed to to_tsquery as is. An empty page is never marked truncated.
+     */
+    public SearchPage search(List<String> terms, String category, String type, String difficultylevel,
+                             int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", String.join(" & ", terms.stream().map(term -> term + ":*").toList()))
+                .addValue("candidates", maxCandidates)
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        // One row more than the cap tells whether the query was truncated; that row is not ranked
+        StringBuilder sql = new StringBuilder(
+                "SELECT r.id, r.questiontitle, r.title, r.category, r.type, r.difficultylevel, r.points, r.matches FROM (" +
+                "SELECT c.*, count(*) OVER () AS matches, row_number() OVER (ORDER BY c.id DESC) AS n FROM (" +
+                "SELECT q.id, q.questiontitle, q.title, q.category, q.type, q.difficultylevel, q.points, q.search_vector, query " +
+                "FROM question q, to_tsquery('simple', :query) query WHERE q.search_vector @@ query");
+        if (category != null) {
+            sql.append(" AND q.category = :category");
+            params.addValue("category", category);
+        }
+        if (type != null) {
+            sql.append(" AND q.type = :type");
+            params.addValue("type", type);
+        }
+        if (difficultylevel != null) {
+            sql.append(" AND q.difficultylevel = :difficultylevel");
+            params.addValue("difficultylevel", difficultylevel);
+        }
+        sql.append(" ORDER BY q.id DESC LIMIT :candidates + 1) c) r WHERE r.n <= :candidates" +
+                " ORDER BY ts_rank_cd(r.search_vector, r.query) DESC, r.id DESC LIMIT :limit OFFSET :offset");
+        return jdbcTemplate.query(sql.toString(), params, resultSet -> {
+            List<QuestionSummaryDto> items = new ArrayList<>();
+            boolean truncated = false;
+            while (resultSet.next()) {
+                items.add(ROW_MAPPER.mapRow(resultSet, items.size()));
+                truncated = resultSet.getInt("matches") > maxCandidates;
+            }
+            return new SearchPage(items, truncated);
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.qs.question_service.event;
+
+import com.qs.question_service.model.Question;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published by QuestionService after a question is added, updated or deleted.
+@Data
+@AllArgsConstructor
+public class QuestionChangedEvent {
+
+    public enum Type { ADDED, UPDATED, DELETED }
+
+    private Type type;
+    private Integer questionId;
+    private Question question; // null for DELETED
+}
@@ -0,0 +1,58 @@
+package com.qs.question_service.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+// Tells quiz_service to drop its cached copy of a question once an update/delete is committed.
+// The call runs on its own executor, so a slow quiz_service never holds up /question/update or /delete.
+@Slf4j
+@Component
+public class QuizServiceNotifier {
+
+    private static final String INVALIDATE_PATH = "/cache/questions/invalidate";
+
+    private final RestTemplate restTemplate;
+    private final TaskExecutor executor;
+    private final String quizServiceBaseUrl;
+
+    public QuizServiceNotifier(RestTemplate restTemplate, @Qualifier("quizServiceNotifierExecutor") TaskExecutor executor,
+                               @Value("${quiz-service.base-url:http://localhost:8083/quiz}") String quizServiceBaseUrl) {
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.quizServiceBaseUrl = quizServiceBaseUrl;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        if (event.getType() == QuestionChangedEvent.Type.ADDED) {
+            return; // New IDs cannot be cached yet.
+        }
+        Integer questionId = event.getQuestionId();
+        try {
+            executor.execute(() -> notifyQuizService(questionId));
+        } catch (TaskRejectedException e) {
+            // Queue full: quiz_service entries still expire by TTL.
+            log.warn("Dropped quiz service notification for question ID {}: queue is full", questionId);
+        }
+    }
+
+    private void notifyQuizService(Integer questionId) {
+        String url = quizServiceBaseUrl + INVALIDATE_PATH;
+        try {
+            restTemplate.postForEntity(url, new HttpEntity<>(List.of(questionId)), Void.class);
+            log.info("Notified quiz service to invalidate question ID: {}", questionId);
+        } catch (Exception e) {
+            // Best effort: quiz_service entries still expire by TTL.
+            log.warn("Could not notify quiz service about question ID {}: {}", questionId, e.getMessage());
+        }
+    }
+}
@@ -2,15 +2,19 @@
 package com.qs.question_service.model;
 
 import jakarta.persistence.*; // Use jakarta persistence
+import com.qs.question_service.config.HibernateCacheConfig;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data // Lombok annotation for getters, setters, toString, equals, hashCode
 @Entity // Specifies that this class is a JPA entity
 @NoArgsConstructor // Lombok: Generates a no-argument constructor
 @AllArgsConstructor // Lombok: Generates a constructor with all fields
 @Table(name="question", schema = "public") // Specifies the table name and schema
+@Cacheable // Second-level cache, see HibernateCacheConfig
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.QUESTION_REGION)
 public class Question {
     @Id // Marks this field as the primary key
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Configures the ID generation strategy (auto-increment for PostgreSQL)
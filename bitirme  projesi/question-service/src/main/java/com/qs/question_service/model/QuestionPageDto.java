@@ -0,0 +1,15 @@
+package com.qs.question_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionPageDto {
+    private List<QuestionSummaryDto> items; // Ordered by question ID
+    private Integer nextCursor; // Pass as afterId to get the next page; null on the last page
+}
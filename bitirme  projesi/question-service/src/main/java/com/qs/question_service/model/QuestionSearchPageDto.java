@@ -0,0 +1,17 @@
+package com.qs.question_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionSearchPageDto {
+    private List<QuestionSummaryDto> items; // Best match first
+    private int page;
+    private Integer nextPage; // null on the last page
+    private boolean truncated; // More matches than question.search.max-candidates: only the newest were ranked
+}
@@ -0,0 +1,19 @@
+package com.qs.question_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Row of the question pool list: the fields shown in the list, without options or the right answer.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionSummaryDto {
+    private Integer id;
+    private String questiontitle;
+    private String title;
+    private String category;
+    private String type;
+    private String difficultylevel;
+    private Integer points;
+}
@@ -0,0 +1,8 @@
+package com.qs.question_service.model;
+
+// Field sets of /question/getQuestions; fields outside the view are left out of the JSON.
+public enum QuestionView {
+    FULL,    // Every QuestionWrapper field
+    STUDENT, // Without the right answer: what an exam page may show
+    GRADING  // Without the question text: what an answer key needs
+}
@@ -1,10 +1,12 @@
 package com.qs.question_service.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL) // Fields outside the requested QuestionView are null
 public class QuestionWrapper {
     private Integer id;
     private String questiontitle;
@@ -0,0 +1,25 @@
+package com.qs.question_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Random questions of one category drawn per stratum, e.g. 10 easy and 5 hard ones.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StratifiedSampleRequest {
+    private String categoryName;
+    private List<Stratum> strata;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stratum {
+        private String difficultylevel; // null or blank matches any
+        private String type; // null or blank matches any
+        private Integer count;
+    }
+}
@@ -0,0 +1,291 @@
+package com.qs.question_service.service;
+
+import com.qs.question_service.event.QuestionChangedEvent;
+import com.qs.question_service.model.Question;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Draws random question IDs from an in-memory index instead of sorting the category with
+ * {@code ORDER BY RANDOM()}. The index holds the IDs of each category as primitive {@code int[]}
+ * pools, one per (difficultylevel, type) pair, so a draw filtered by either column only visits
+ * the matching pools. A draw of k IDs is a partial Fisher-Yates shuffle over the concatenated
+ * pools that records its swaps in a small map: it costs O(k) whatever the size of the bank and
+ * never copies or reorders the pools.
+ * <p>
+ * The index is loaded on the first draw and kept in sync with the committed
+ * {@link QuestionChangedEvent}s of this instance. It is also rebuilt every
+ * {@code question.sampling.refresh-minutes} for changes made elsewhere; events that commit while
+ * a rebuild reads the table are replayed onto the new index before it is swapped in.
+ */
+@Slf4j
+@Service
+public class QuestionSampler {
+
+    private static final String LOAD_SQL = "SELECT id, category, difficultylevel, type FROM question";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadLock = new Object();
+    private final ScheduledExecutorService refresher;
+    private final int fetchSize;
+    private Map<String, CategoryIndex> categories; // Guarded by lock; null until loaded
+    private List<QuestionChangedEvent> journal; // Guarded by lock; non-null while a rebuild reads the table
+
+    public QuestionSampler(JdbcTemplate jdbcTemplate,
+                           @Value("${question.sampling.fetch-size:5000}") int fetchSize,
+                           @Value("${question.sampling.refresh-minutes:10}") long refreshMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "question-sampler-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (refreshMinutes > 0) {
+            this.refresher.scheduleWithFixedDelay(this::refreshSafely, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /** Up to {@code count} distinct random IDs of the category; fewer if it has fewer questions. */
+    public List<Integer> sample(String category, int count) {
+        return sample(category, null, null, count, Set.of());
+    }
+
+    /**
+     * Up to {@code count} distinct random IDs of the category whose difficultylevel and type match
+     * (null matches any), skipping the IDs in {@code exclude} so strata of one quiz can overlap.
+     */
+    public List<Integer> sample(String category, String difficultylevel, String type, int count, Set<Integer> exclude) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            CategoryIndex index = categories.get(category);
+            if (index == null || count <= 0) {
+                return new ArrayList<>();
+            }
+            List<IdPool> pools = new ArrayList<>();
+            int total = 0;
+            for (Map.Entry<Stratum, IdPool> entry : index.pools.entrySet()) {
+                if (entry.getKey().matches(difficultylevel, type) && entry.getValue().size > 0) {
+                    pools.add(entry.getValue());
+                    total += entry.getValue().size;
+                }
+            }
+            return draw(pools, total, count, exclude);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (categories == null) {
+                return; // Not loaded yet: the first load reads the committed change
+            }
+            apply(categories, event);
+            if (journal != null) {
+                journal.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // Partial Fisher-Yates over the virtual concatenation of the pools; swapped slots live in a map.
+    private static List<Integer> draw(List<IdPool> pools, int total, int count, Set<Integer> exclude) {
+        List<Integer> result = new ArrayList<>(Math.min(count, total));
+        Map<Integer, Integer> swapped = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < total && result.size() < count; i++) {
+            int j = i + random.nextInt(total - i);
+            int picked = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            int id = idAt(pools, picked);
+            if (!exclude.contains(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static int idAt(List<IdPool> pools, int position) {
+        for (IdPool pool : pools) {
+            if (position < pool.size) {
+                return pool.ids[position];
+            }
+            position -= pool.size;
+        }
+        throw new IndexOutOfBoundsException(position);
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (categories != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (loadLock) {
+            lock.readLock().lock();
+            try {
+                if (categories != null) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            rebuild();
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            synchronized (loadLock) {
+                lock.readLock().lock();
+                try {
+                    if (categories == null) {
+                        return; // Nobody has drawn yet
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("Could not refresh the question sampling index: {}", e.getMessage());
+        }
+    }
+
+    // Caller holds loadLock. Reads the table without blocking draws, then swaps the new index in.
+    private void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, CategoryIndex> loaded = new HashMap<>();
+        int[] rows = new int[1];
+        try {
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(LOAD_SQL);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, resultSet -> {
+                loaded.computeIfAbsent(resultSet.getString(2), c -> new CategoryIndex())
+                        .add(new Stratum(resultSet.getString(3), resultSet.getString(4)), resultSet.getInt(1));
+                rows[0]++;
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            journal.forEach(event -> apply(loaded, event)); // Committed during the read; applying twice is harmless
+            journal = null;
+            categories = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Question sampling index loaded: {} questions in {} categories in {} ms.",
+                rows[0], loaded.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static void apply(Map<String, CategoryIndex> categories, QuestionChangedEvent event) {
+        int id = event.getQuestionId();
+        // The previous category is not part of the event: look the ID up in all of them
+        for (Iterator<CategoryIndex> it = categories.values().iterator(); it.hasNext(); ) {
+            CategoryIndex index = it.next();
+            if (index.remove(id) && index.size == 0) {
+                it.remove();
+            }
+        }
+        Question question = event.getQuestion();
+        if (event.getType() != QuestionChangedEvent.Type.DELETED && question != null) {
+            categories.computeIfAbsent(question.getCategory(), c -> new CategoryIndex())
+                    .add(new Stratum(question.getDifficultylevel(), question.getType()), id);
+        }
+    }
+
+    private record Stratum(String difficultylevel, String type) {
+        boolean matches(String wantedDifficultylevel, String wantedType) {
+            return (wantedDifficultylevel == null || wantedDifficultylevel.equals(difficultylevel))
+                    && (wantedType == null || wantedType.equals(type));
+        }
+    }
+
+    private static final class CategoryIndex {
+        private final Map<Stratum, IdPool> pools = new HashMap<>();
+        private int size;
+
+        void add(Stratum stratum, int id) {
+            pools.computeIfAbsent(stratum, s -> new IdPool()).add(id);
+            size++;
+        }
+
+        boolean remove(int id) {
+            for (Iterator<IdPool> it = pools.values().iterator(); it.hasNext(); ) {
+                IdPool pool = it.next();
+                if (pool.remove(id)) {
+                    size--;
+                    if (pool.size == 0) {
+                        it.remove();
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Unordered IDs; removal moves the last ID into the freed slot.
+    private static final class IdPool {
+        private int[] ids = new int[16];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
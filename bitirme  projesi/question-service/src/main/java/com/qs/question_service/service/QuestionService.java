@@ -1,22 +1,38 @@
 // src/main/java/com/qs/question_service/service/QuestionService.java
 package com.qs.question_service.service;
 
+import com.qs.question_service.event.QuestionChangedEvent;
+import com.qs.question_service.model.QuestionPageDto;
+import com.qs.question_service.model.QuestionSearchPageDto;
+import com.qs.question_service.model.QuestionSummaryDto;
+import com.qs.question_service.model.QuestionView;
 import com.qs.question_service.model.QuestionWrapper;
 import com.qs.question_service.model.Response;
+import com.qs.question_service.model.StratifiedSampleRequest;
 import lombok.extern.slf4j.Slf4j;
 import com.qs.question_service.dao.QuestionDao;
+import com.qs.question_service.dao.QuestionSearchDao;
 import com.qs.question_service.model.Question;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException; // Import for delete
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // Import Transactional
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,6 +42,25 @@ public class QuestionService {
     @Autowired
     private QuestionDao questionDao;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuestionSampler questionSampler;
+
+    @Autowired
+    private QuestionSearchDao questionSearchDao;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int LOOKUP_CHUNK_SIZE = 1000; // IDs per IN (...) query
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_OFFSET = 10_000; // Far past question.search.max-candidates, where pages are empty
+    private static final int MAX_SEARCH_TERMS = 8;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Value("${question.scoring.max-sheets:10000}")
+    private int maxScoreSheets;
+
     // --- getAllQuestions (no change) ---
     public ResponseEntity<List<Question>> getAllQuestions(){
         try{
@@ -38,6 +73,63 @@ public class QuestionService {
         }
     }
 
+    // One page of the question pool, filtered in the database and ordered by ID.
+    public ResponseEntity<QuestionPageDto> getQuestionPage(String category, String type, String difficultylevel,
+                                                           Integer afterId, int pageSize) {
+        if (pageSize <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE);
+        try {
+            List<QuestionSummaryDto> items = questionDao.findSummaryPage(afterId == null ? 0 : afterId,
+                    blankToNull(category), blankToNull(type), blankToNull(difficultylevel), PageRequest.of(0, limit + 1));
+            boolean hasMore = items.size() > limit;
+            if (hasMore) {
+                items = items.subList(0, limit);
+            }
+            Integer nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+            return new ResponseEntity<>(new QuestionPageDto(items, nextCursor), HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error fetching question page (category={}, type={}, difficultylevel={}, afterId={})",
+                    category, type, difficultylevel, afterId, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Ranked full-text search over question text, title and options; every word also matches as a prefix.
+    public ResponseEntity<QuestionSearchPageDto> searchQuestions(String query, String category, String type, String difficultylevel,
+                                                                 int page, int pageSize) {
+        List<String> terms = query == null ? List.of() : NON_WORD.splitAsStream(query)
+                .filter(term -> !term.isEmpty()).limit(MAX_SEARCH_TERMS).collect(Collectors.toList());
+        if (terms.isEmpty() || page < 0 || pageSize <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int limit = Math.min(pageSize, MAX_SEARCH_PAGE_SIZE);
+        long offset = (long) page * limit;
+        if (offset > MAX_SEARCH_OFFSET) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            QuestionSearchDao.SearchPage result = questionSearchDao.search(terms, blankToNull(category), blankToNull(type),
+                    blankToNull(difficultylevel), (int) offset, limit + 1);
+            List<QuestionSummaryDto> items = result.items();
+            boolean hasMore = items.size() > limit;
+            if (hasMore) {
+                items = items.subList(0, limit);
+            }
+            return new ResponseEntity<>(new QuestionSearchPageDto(items, page, hasMore ? page + 1 : null, result.truncated()),
+                    HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error searching questions (query={}, category={}, type={}, difficultylevel={}, page={})",
+                    query, category, type, difficultylevel, page, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
     // --- getQuestionsByCategory (no change) ---
     public ResponseEntity<List<Question>> getQuestionsByCategory(String category) {
         if (category == null || category.trim().isEmpty()) {
@@ -77,6 +169,7 @@ public class QuestionService {
         try {
             question.setId(null); // Ensure it's treated as new
             Question savedQuestion = questionDao.save(question);
+            eventPublisher.publishEvent(new QuestionChangedEvent(QuestionChangedEvent.Type.ADDED, savedQuestion.getId(), savedQuestion));
             log.info("Successfully added question ID: {}", savedQuestion.getId());
             return new ResponseEntity<>(savedQuestion, HttpStatus.CREATED);
         } catch (DataAccessException e) {
@@ -138,6 +231,7 @@ public class QuestionService {
 
             // 3. Save the updated entity (JPA will perform an UPDATE)
             Question savedQuestion = questionDao.save(existingQuestion);
+            eventPublisher.publishEvent(new QuestionChangedEvent(QuestionChangedEvent.Type.UPDATED, id, savedQuestion));
             log.info("Successfully updated question ID: {}", id);
             return new ResponseEntity<>(savedQuestion, HttpStatus.OK); // Return updated question with 200 OK
 
@@ -164,6 +258,7 @@ public class QuestionService {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             }
             questionDao.deleteById(id);
+            eventPublisher.publishEvent(new QuestionChangedEvent(QuestionChangedEvent.Type.DELETED, id, null));
             log.info("Successfully deleted question ID: {}", id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT); // Return 204 No Content on success
         } catch (EmptyResultDataAccessException e) {
@@ -181,7 +276,7 @@ public class QuestionService {
     // --- ---
 
 
-    // --- getQuestionsForQuiz (no change) ---
+    // Random IDs come from the in-memory sampling index; the database query is the fallback when it cannot load.
     public ResponseEntity<List<Integer>> getQuestionsForQuiz(String categoryName, Integer numQuestions) {
         if (categoryName == null || categoryName.trim().isEmpty()) {
             log.warn("Attempted to generate questions with null or empty category.");
@@ -192,7 +287,13 @@ public class QuestionService {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         try {
-            List<Integer> questionIds = questionDao.findRandomQuestionsByCategory(categoryName, numQuestions);
+            List<Integer> questionIds;
+            try {
+                questionIds = questionSampler.sample(categoryName, numQuestions);
+            } catch (DataAccessException e) {
+                log.warn("Question sampling index unavailable, drawing in the database: {}", e.getMessage());
+                questionIds = questionDao.findRandomQuestionsByCategory(categoryName, numQuestions);
+            }
             log.info("Generated {} random question IDs for category: {}", questionIds.size(), categoryName);
             if (questionIds.size() < numQuestions) {
                 log.warn("Could only find {} questions for category '{}', requested {}.", questionIds.size(), categoryName, numQuestions);
@@ -204,84 +305,187 @@ public class QuestionService {
         }
     }
 
-    // --- getQuestionsFromId (no change) ---
-    public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(List<Integer> questionIds) {
+    // Draws each stratum in order; an ID is never picked twice even if strata overlap.
+    public ResponseEntity<List<Integer>> getStratifiedQuestionsForQuiz(StratifiedSampleRequest request) {
+        if (request == null || request.getCategoryName() == null || request.getCategoryName().trim().isEmpty()
+                || request.getStrata() == null || request.getStrata().isEmpty()) {
+            log.warn("Stratified generate request without category or strata: {}", request);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        for (StratifiedSampleRequest.Stratum stratum : request.getStrata()) {
+            if (stratum == null || stratum.getCount() == null || stratum.getCount() <= 0) {
+                log.warn("Stratified generate request with invalid stratum: {}", stratum);
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+        String categoryName = request.getCategoryName();
+        try {
+            List<Integer> questionIds = new ArrayList<>();
+            Set<Integer> picked = new HashSet<>();
+            for (StratifiedSampleRequest.Stratum stratum : request.getStrata()) {
+                List<Integer> drawn = questionSampler.sample(categoryName, blankToNull(stratum.getDifficultylevel()),
+                        blankToNull(stratum.getType()), stratum.getCount(), picked);
+                if (drawn.size() < stratum.getCount()) {
+                    log.warn("Could only find {} questions for category '{}' (difficultylevel={}, type={}), requested {}.",
+                            drawn.size(), categoryName, stratum.getDifficultylevel(), stratum.getType(), stratum.getCount());
+                }
+                questionIds.addAll(drawn);
+                picked.addAll(drawn);
+            }
+            log.info("Generated {} stratified random question IDs for category: {}", questionIds.size(), categoryName);
+            return new ResponseEntity<>(questionIds, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error generating stratified random questions for category: {}", categoryName, e);
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Questions in the order of the requested IDs (duplicates and unknown IDs dropped), read straight into the view's projection.
+    public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(List<Integer> questionIds, QuestionView view) {
         if (questionIds == null || questionIds.isEmpty()) {
             log.warn("Received request to get questions with null or empty ID list.");
             return ResponseEntity.ok(new ArrayList<>());
         }
-        log.info("Fetching question details for IDs: {}", questionIds);
-        List<QuestionWrapper> wrappers = new ArrayList<>();
-        List<Question> fetchedQuestions;
-
+        List<Integer> distinctIds = questionIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        log.info("Fetching {} view of {} questions.", view, distinctIds.size());
+        Map<Integer, QuestionWrapper> byId = new HashMap<>(distinctIds.size() * 2);
         try {
-            fetchedQuestions = questionDao.findAllById(questionIds);
+            for (int from = 0; from < distinctIds.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(distinctIds.size(), from + LOOKUP_CHUNK_SIZE));
+                for (QuestionWrapper wrapper : findView(chunk, view)) {
+                    byId.put(wrapper.getId(), wrapper);
+                }
+            }
         } catch (Exception e) {
-            log.error("Database error fetching questions by IDs: {}", questionIds, e);
+            log.error("Database error fetching {} questions by IDs", distinctIds.size(), e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (fetchedQuestions.size() != questionIds.size()) {
-            List<Integer> foundIds = fetchedQuestions.stream().map(Question::getId).collect(Collectors.toList());
-            List<Integer> missingIds = questionIds.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toList());
-            log.warn("Could not find all requested question IDs. Requested: {}, Found: {}. Missing IDs: {}", questionIds.size(), fetchedQuestions.size(), missingIds);
+        List<QuestionWrapper> wrappers = new ArrayList<>(byId.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : distinctIds) {
+            QuestionWrapper wrapper = byId.get(id);
+            if (wrapper != null) {
+                wrappers.add(wrapper);
+            } else {
+                missingIds.add(id);
+            }
         }
-
-        for (Question question : fetchedQuestions) {
-            QuestionWrapper wrapper = new QuestionWrapper();
-            wrapper.setId(question.getId());
-            wrapper.setQuestiontitle(question.getQuestiontitle());
-            wrapper.setOption1(question.getOption1());
-            wrapper.setOption2(question.getOption2());
-            wrapper.setOption3(question.getOption3());
-            wrapper.setOption4(question.getOption4());
-            wrapper.setType(question.getType());
-            wrapper.setRightanswer(question.getRightanswer()); // Review için geçici
-            wrapper.setPoints(question.getPoints() != null ? question.getPoints() : 0); // Ensure points are not null
-            wrappers.add(wrapper);
+        if (!missingIds.isEmpty()) {
+            log.warn("Could not find all requested question IDs. Requested: {}, Found: {}. Missing IDs: {}", distinctIds.size(), wrappers.size(), missingIds);
         }
-        log.info("Returning {} QuestionWrappers for requested IDs.", wrappers.size());
-        return new ResponseEntity<>(wrappers,HttpStatus.OK);
+        return new ResponseEntity<>(wrappers, HttpStatus.OK);
     }
 
-    // --- getScore (no change needed) ---
+    private List<QuestionWrapper> findView(List<Integer> ids, QuestionView view) {
+        return switch (view) {
+            case FULL -> questionDao.findFullViewByIdIn(ids);
+            case STUDENT -> questionDao.findStudentViewByIdIn(ids);
+            case GRADING -> questionDao.findGradingViewByIdIn(ids);
+        };
+    }
+
+    // Scores one answer sheet with a single lookup of its questions.
     public ResponseEntity<Integer> getScore(List<Response> responses) {
         if (responses == null || responses.isEmpty()) {
             log.warn("Received request to calculate score with null or empty responses list.");
             return ResponseEntity.ok(0);
         }
         log.info("Calculating score (based on points) for {} responses.", responses.size());
-        int totalPoints = 0;
-        int processed = 0;
-        int notFound = 0;
+        try {
+            Map<Integer, ScoringKey> keys = loadScoringKeys(List.of(responses));
+            int totalPoints = score(responses, keys);
+            log.info("Score calculation complete: {} total points achieved from {} responses.", totalPoints, responses.size());
+            return new ResponseEntity<>(totalPoints, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error calculating score for {} responses", responses.size(), e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-        for (Response response : responses){
-            if (response == null || response.getId() == null || response.getResponse() == null) {
-                log.warn("Skipping invalid response object: {}", response);
+    // Scores many answer sheets in one call; the questions of all sheets are loaded once. Scores keep the sheet order.
+    public ResponseEntity<List<Integer>> getScores(List<List<Response>> answerSheets) {
+        if (answerSheets == null || answerSheets.isEmpty()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+        if (answerSheets.size() > maxScoreSheets) {
+            log.warn("Rejected batch score request with {} answer sheets (max {}).", answerSheets.size(), maxScoreSheets);
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        try {
+            Map<Integer, ScoringKey> keys = loadScoringKeys(answerSheets);
+            List<Integer> scores = new ArrayList<>(answerSheets.size());
+            for (List<Response> sheet : answerSheets) {
+                scores.add(sheet == null ? 0 : score(sheet, keys));
+            }
+            log.info("Scored {} answer sheets against {} questions.", answerSheets.size(), keys.size());
+            return new ResponseEntity<>(scores, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error calculating scores for {} answer sheets", answerSheets.size(), e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Right answers of all questions referenced by the sheets, trimmed once; case is ignored by matches.
+    private Map<Integer, ScoringKey> loadScoringKeys(List<List<Response>> answerSheets) {
+        Set<Integer> ids = new HashSet<>();
+        for (List<Response> sheet : answerSheets) {
+            if (sheet == null) {
                 continue;
             }
-            processed++;
-            try {
-                Optional<Question> questionOpt = questionDao.findById(response.getId());
-                if(questionOpt.isPresent()){
-                    Question question = questionOpt.get();
-                    String correctAnswer = question.getRightanswer();
-                    String userAnswer = response.getResponse();
-                    boolean isCorrect = correctAnswer != null && userAnswer != null &&
-                            correctAnswer.trim().equalsIgnoreCase(userAnswer.trim());
-
-                    if (isCorrect) {
-                        totalPoints += (question.getPoints() != null ? question.getPoints() : 0);
-                    }
-                } else {
-                    notFound++;
-                    log.warn("Question with ID {} not found during scoring.", response.getId());
+            for (Response response : sheet) {
+                if (response != null && response.getId() != null) {
+                    ids.add(response.getId());
                 }
-            } catch (Exception e) {
-                log.error("Error processing score for response ID {}: {}", response.getId(), e.getMessage(), e);
             }
         }
-        log.info("Score calculation complete: {} total points achieved from {} processed responses. {} questions not found.", totalPoints, processed, notFound);
-        return new ResponseEntity<>(totalPoints, HttpStatus.OK);
+        Map<Integer, ScoringKey> keys = new HashMap<>(ids.size() * 2);
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Integer> chunk = idList.subList(from, Math.min(idList.size(), from + LOOKUP_CHUNK_SIZE));
+            for (Question question : questionDao.findAllByIdCached(chunk)) {
+                String rightAnswer = question.getRightanswer();
+                keys.put(question.getId(), new ScoringKey(rightAnswer == null ? null : rightAnswer.trim(),
+                        question.getPoints() != null ? question.getPoints() : 0));
+            }
+        }
+        if (keys.size() < ids.size()) {
+            log.warn("{} of {} questions referenced for scoring were not found.", ids.size() - keys.size(), ids.size());
+        }
+        return keys;
     }
+
+    private static int score(List<Response> responses, Map<Integer, ScoringKey> keys) {
+        int totalPoints = 0;
+        for (Response response : responses) {
+            if (response == null || response.getId() == null || response.getResponse() == null) {
+                continue;
+            }
+            ScoringKey key = keys.get(response.getId());
+            if (key != null && matches(key.answer(), response.getResponse())) {
+                totalPoints += key.points();
+            }
+        }
+        return totalPoints;
+    }
+
+    // Same as response.trim().equalsIgnoreCase(trimmedAnswer), without copying the response. Lower-casing
+    // the key first would change its length for e.g. 'İ' and reject answers equal to the key.
+    static boolean matches(String trimmedAnswer, String response) {
+        if (trimmedAnswer == null) {
+            return false;
+        }
+        int start = 0;
+        int end = response.length();
+        while (start < end && response.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && response.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == trimmedAnswer.length()
+                && trimmedAnswer.regionMatches(true, 0, response, start, end - start);
+    }
+
+    private record ScoringKey(String answer, int points) {}
 }
\ No newline at end of file
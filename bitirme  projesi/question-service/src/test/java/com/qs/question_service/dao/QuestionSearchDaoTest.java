@@ -0,0 +1,84 @@
+package com.qs.question_service.dao;
+
+import com.qs.question_service.model.QuestionSummaryDto;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class QuestionSearchDaoTest {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final QuestionSearchDao dao = new QuestionSearchDao(jdbcTemplate, 2000);
+
+    @Test
+    void ranksTheNewestCandidates() {
+        dao.search(List.of("java", "coll"), null, null, null, 20, 10);
+
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        String sql = captureSql(params);
+        assertTrue(sql.contains("WHERE q.search_vector @@ query ORDER BY q.id DESC LIMIT :candidates + 1) c) r WHERE r.n <= :candidates"), sql);
+        assertTrue(sql.endsWith("ORDER BY ts_rank_cd(r.search_vector, r.query) DESC, r.id DESC LIMIT :limit OFFSET :offset"), sql);
+        assertEquals("java:* & coll:*", params.getValue().getValue("query"));
+        assertEquals(2000, params.getValue().getValue("candidates"));
+        assertEquals(20, params.getValue().getValue("offset"));
+        assertEquals(10, params.getValue().getValue("limit"));
+    }
+
+    @Test
+    void addsOnlyTheFiltersThatAreSet() {
+        dao.search(List.of("java"), "Java", null, "hard", 0, 10);
+
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        String sql = captureSql(params);
+        assertTrue(sql.contains("@@ query AND q.category = :category AND q.difficultylevel = :difficultylevel ORDER BY q.id DESC"), sql);
+        assertFalse(sql.contains(":type"), sql);
+        assertEquals("Java", params.getValue().getValue("category"));
+        assertFalse(params.getValue().hasValue("type"));
+    }
+
+    @Test
+    void reportsTruncationWhenMoreThanTheCapMatch() throws SQLException {
+        assertEquals(List.of(7, 5), searchReturning(new int[]{7, 5}, 2001).items().stream().map(QuestionSummaryDto::getId).toList());
+        assertTrue(searchReturning(new int[]{7, 5}, 2001).truncated());
+        assertFalse(searchReturning(new int[]{7, 5}, 2000).truncated());
+        assertFalse(searchReturning(new int[0], 0).truncated());
+    }
+
+    // Runs the search on a result set with the given IDs, each row carrying the number of matches found.
+    @SuppressWarnings("unchecked")
+    private QuestionSearchDao.SearchPage searchReturning(int[] ids, int matches) throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("id");
+        when(metaData.getColumnLabel(2)).thenReturn("matches");
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        int[] row = {-1};
+        when(resultSet.next()).thenAnswer(invocation -> ++row[0] < ids.length);
+        when(resultSet.getInt(1)).thenAnswer(invocation -> ids[row[0]]);
+        when(resultSet.getInt("matches")).thenReturn(matches);
+        NamedParameterJdbcTemplate template = mock(NamedParameterJdbcTemplate.class);
+        when(template.query(anyString(), any(MapSqlParameterSource.class), any(ResultSetExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResultSetExtractor<?>>getArgument(2).extractData(resultSet));
+        return new QuestionSearchDao(template, 2000).search(List.of("java"), null, null, null, 0, 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String captureSql(ArgumentCaptor<MapSqlParameterSource> params) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), params.capture(), any(ResultSetExtractor.class));
+        return sql.getValue();
+    }
+}
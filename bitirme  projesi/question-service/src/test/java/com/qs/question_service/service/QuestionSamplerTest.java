@@ -0,0 +1,162 @@
+package com.qs.question_service.service;
+
+import com.qs.question_service.event.QuestionChangedEvent;
+import com.qs.question_service.model.Question;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class QuestionSamplerTest {
+
+    private final QuestionTable table = new QuestionTable();
+    private final QuestionSampler sampler = new QuestionSampler(table, 100, 0);
+
+    @AfterEach
+    void shutdown() {
+        sampler.shutdown();
+    }
+
+    @Test
+    void drawsDistinctIdsOfTheCategory() {
+        for (int id = 1; id <= 100; id++) {
+            table.add(id, "math", id % 3 == 0 ? "HARD" : "EASY", id % 2 == 0 ? "MCQ" : "TEXT");
+        }
+        for (int id = 101; id <= 150; id++) {
+            table.add(id, "history", "EASY", "MCQ");
+        }
+
+        for (int round = 0; round < 200; round++) {
+            List<Integer> drawn = sampler.sample("math", 30);
+            assertEquals(30, drawn.size());
+            assertEquals(30, new HashSet<>(drawn).size());
+            assertTrue(drawn.stream().allMatch(id -> id >= 1 && id <= 100), drawn::toString);
+
+            List<Integer> hardMcq = sampler.sample("math", "HARD", "MCQ", 10, Set.of());
+            assertEquals(10, new HashSet<>(hardMcq).size());
+            assertTrue(hardMcq.stream().allMatch(id -> id % 6 == 0), hardMcq::toString);
+        }
+        assertEquals(1, table.loads);
+    }
+
+    @Test
+    void everyIdCanBeDrawn() {
+        for (int id = 1; id <= 20; id++) {
+            table.add(id, "math", "EASY", id % 2 == 0 ? "MCQ" : "TEXT");
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        for (int round = 0; round < 500; round++) {
+            seen.addAll(sampler.sample("math", 3));
+        }
+        assertEquals(range(1, 20), seen);
+    }
+
+    @Test
+    void skipsExcludedIdsAndStillFillsTheCount() {
+        for (int id = 1; id <= 10; id++) {
+            table.add(id, "math", "EASY", "MCQ");
+        }
+        Set<Integer> exclude = Set.of(2, 4, 6, 8);
+
+        for (int round = 0; round < 100; round++) {
+            List<Integer> drawn = sampler.sample("math", null, null, 6, exclude);
+            assertEquals(Set.of(1, 3, 5, 7, 9, 10), new HashSet<>(drawn));
+            assertEquals(6, drawn.size());
+
+            List<Integer> some = sampler.sample("math", null, null, 3, exclude);
+            assertEquals(3, new HashSet<>(some).size());
+            assertTrue(Collections.disjoint(exclude, some), some::toString);
+        }
+    }
+
+    @Test
+    void shortPoolsReturnWhatTheyHave() {
+        for (int id = 1; id <= 5; id++) {
+            table.add(id, "math", id <= 2 ? "HARD" : "EASY", "MCQ");
+        }
+
+        assertEquals(range(1, 5), new HashSet<>(sampler.sample("math", 50)));
+        assertEquals(5, sampler.sample("math", 50).size());
+        assertEquals(Set.of(1, 2), new HashSet<>(sampler.sample("math", "HARD", null, 10, Set.of())));
+        assertEquals(List.of(), sampler.sample("math", null, null, 10, range(1, 5)));
+        assertEquals(List.of(), sampler.sample("math", "MEDIUM", null, 10, Set.of()));
+        assertEquals(List.of(), sampler.sample("physics", 10));
+        assertEquals(List.of(), sampler.sample("math", 0));
+    }
+
+    @Test
+    void followsAddedUpdatedAndDeletedQuestions() {
+        for (int id = 1; id <= 4; id++) {
+            table.add(id, "math", "EASY", "MCQ");
+        }
+        // Before the first draw the index is not loaded; the load reads the table instead
+        sampler.onQuestionChanged(event(QuestionChangedEvent.Type.ADDED, 99, "physics", "EASY", "MCQ"));
+        assertEquals(List.of(), sampler.sample("physics", 5));
+
+        sampler.onQuestionChanged(event(QuestionChangedEvent.Type.ADDED, 5, "math", "HARD", "TEXT"));
+        assertEquals(range(1, 5), new HashSet<>(sampler.sample("math", 10)));
+        assertEquals(List.of(5), sampler.sample("math", "HARD", null, 10, Set.of()));
+
+        sampler.onQuestionChanged(event(QuestionChangedEvent.Type.UPDATED, 2, "math", "HARD", "MCQ"));
+        assertEquals(Set.of(2, 5), new HashSet<>(sampler.sample("math", "HARD", null, 10, Set.of())));
+        assertEquals(5, sampler.sample("math", 10).size());
+
+        sampler.onQuestionChanged(event(QuestionChangedEvent.Type.UPDATED, 3, "physics", "EASY", "MCQ"));
+        assertEquals(Set.of(1, 2, 4, 5), new HashSet<>(sampler.sample("math", 10)));
+        assertEquals(List.of(3), sampler.sample("physics", 10));
+
+        sampler.onQuestionChanged(new QuestionChangedEvent(QuestionChangedEvent.Type.DELETED, 3, null));
+        sampler.onQuestionChanged(new QuestionChangedEvent(QuestionChangedEvent.Type.DELETED, 1, null));
+        assertEquals(List.of(), sampler.sample("physics", 10));
+        assertEquals(Set.of(2, 4, 5), new HashSet<>(sampler.sample("math", 10)));
+        assertEquals(1, table.loads);
+    }
+
+    private static QuestionChangedEvent event(QuestionChangedEvent.Type type, int id, String category,
+                                              String difficultylevel, String questionType) {
+        Question question = new Question();
+        question.setId(id);
+        question.setCategory(category);
+        question.setDifficultylevel(difficultylevel);
+        question.setType(questionType);
+        return new QuestionChangedEvent(type, id, question);
+    }
+
+    private static Set<Integer> range(int from, int to) {
+        return IntStream.rangeClosed(from, to).boxed().collect(Collectors.toSet());
+    }
+
+    // Serves the rows of LOAD_SQL (id, category, difficultylevel, type) from memory.
+    private static final class QuestionTable extends JdbcTemplate {
+        private final List<Object[]> rows = new ArrayList<>();
+        private int loads;
+
+        void add(int id, String category, String difficultylevel, String type) {
+            rows.add(new Object[]{id, category, difficultylevel, type});
+        }
+
+        @Override
+        public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+            loads++;
+            for (Object[] row : rows) {
+                ResultSet resultSet = mock(ResultSet.class, invocation -> row[(Integer) invocation.getArgument(0) - 1]);
+                try {
+                    handler.processRow(resultSet);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
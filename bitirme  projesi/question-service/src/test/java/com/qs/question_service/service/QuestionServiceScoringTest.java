@@ -0,0 +1,109 @@
+package com.qs.question_service.service;
+
+import com.qs.question_service.dao.QuestionDao;
+import com.qs.question_service.model.Question;
+import com.qs.question_service.model.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionServiceScoringTest {
+
+    @Mock
+    private QuestionDao questionDao;
+
+    @InjectMocks
+    private QuestionService questionService;
+
+    @BeforeEach
+    void questions() {
+        ReflectionTestUtils.setField(questionService, "maxScoreSheets", 3);
+        lenient().when(questionDao.findAllByIdCached(anyCollection())).thenReturn(List.of(
+                question(1, "İstanbul", 5), question(2, " Işık ", 3), question(3, "Ελλάδα", 2),
+                question(4, null, 7), question(5, "Paris", null)));
+    }
+
+    @Test
+    void matchesLikeTrimmedEqualsIgnoreCase() {
+        String[][] cases = {
+                {"İstanbul", "İstanbul"}, {"İstanbul", "istanbul"}, {"İstanbul", "  İSTANBUL "},
+                {"Işık", "IŞIK"}, {"Işık", "ışık"}, {"Çağrı Gökşen", "çağrı gökşen"},
+                {"Straße", "STRASSE"}, {"Straße", "straße"}, {"Ελλάδα", "ΕΛΛΆΔΑ"}, {"Москва", "москва"},
+                {"paris", "Paris\t"}, {"a", "b"}, {"", "  "}
+        };
+        for (String[] c : cases) {
+            assertEquals(c[0].trim().equalsIgnoreCase(c[1].trim()), QuestionService.matches(c[0].trim(), c[1]),
+                    () -> c[0] + " vs " + c[1]);
+        }
+        assertFalse(QuestionService.matches(null, "İstanbul"));
+    }
+
+    @Test
+    void scoresOneSheetWithOneLookup() {
+        List<Response> sheet = Arrays.asList(response(1, "İstanbul"), response(2, "ışık"), response(3, "ελλάδα "),
+                response(4, "anything"), response(5, "paris"), response(99, "İstanbul"), null, response(null, "x"));
+
+        var result = questionService.getScore(sheet);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(10, result.getBody());
+        verify(questionDao, times(1)).findAllByIdCached(anyCollection());
+    }
+
+    @Test
+    void emptySheetScoresZeroWithoutLookup() {
+        assertEquals(0, questionService.getScore(List.of()).getBody());
+        assertEquals(0, questionService.getScore(null).getBody());
+        verifyNoInteractions(questionDao);
+    }
+
+    @Test
+    void scoresManySheetsInOrderWithOneLookup() {
+        List<List<Response>> sheets = Arrays.asList(
+                List.of(response(1, "istanbul"), response(3, "Ελλάδα")),
+                null,
+                List.of(response(1, "Istanbul"), response(2, "IŞIK"), response(3, "Kıbrıs")));
+
+        var result = questionService.getScores(sheets);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(List.of(7, 0, 8), result.getBody()); // "Istanbul" equalsIgnoreCase "İstanbul"
+        verify(questionDao, times(1)).findAllByIdCached(anyCollection());
+    }
+
+    @Test
+    void rejectsTooManySheets() {
+        var result = questionService.getScores(List.of(List.of(), List.of(), List.of(), List.of()));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, result.getStatusCode());
+        verifyNoInteractions(questionDao);
+    }
+
+    private static Question question(int id, String rightAnswer, Integer points) {
+        Question question = new Question();
+        question.setId(id);
+        question.setRightanswer(rightAnswer);
+        question.setPoints(points);
+        return question;
+    }
+
+    private static Response response(Integer id, String text) {
+        Response response = new Response();
+        response.setId(id);
+        response.setResponse(text);
+        return response;
+    }
+}
@@ -1,10 +1,19 @@
 package quiz_service.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import quiz_service.model.*;
+import quiz_service.service.AnswerDraftBuffer;
+import quiz_service.service.QuizAttemptService;
 import quiz_service.service.QuizService;
+import quiz_service.service.RegradeService;
+import quiz_service.service.ResultStreamService;
+import quiz_service.service.SubmissionAnswerMigrationService;
 import java.util.List;
 
 @RestController
@@ -14,6 +23,21 @@ public class QuizController {
     @Autowired
     QuizService quizService;
 
+    @Autowired
+    SubmissionAnswerMigrationService submissionAnswerMigrationService;
+
+    @Autowired
+    RegradeService regradeService;
+
+    @Autowired
+    QuizAttemptService quizAttemptService;
+
+    @Autowired
+    AnswerDraftBuffer answerDraftBuffer;
+
+    @Autowired
+    ResultStreamService resultStreamService;
+
     @PostMapping("/create")
     public ResponseEntity<String> createQuiz(@RequestBody QuizDto quizDto){
         return quizService.createQuiz(quizDto.getCategoryName(), quizDto.getNumQuestions(), quizDto.getTitle());
@@ -25,10 +49,19 @@ public class QuizController {
     }
 
     @GetMapping("/instructor/all")
-    public ResponseEntity<List<Quiz>> getAllQuizzesForInstructor() {
+    public ResponseEntity<List<QuizSummaryDto>> getAllQuizzesForInstructor() {
         return quizService.getAllQuizzesForInstructor();
     }
 
+    // Keyset-paginated instructor list. Pass nextCursor of a page as cursor to get the next one.
+    @GetMapping("/instructor/page")
+    public ResponseEntity<QuizSummaryPageDto> getQuizSummaryPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int pageSize) {
+        return quizService.getQuizSummaryPage(status, cursor, pageSize);
+    }
+
     @GetMapping("/details/{quizId}")
     public ResponseEntity<Quiz> getQuizDetailsById(@PathVariable Integer quizId) {
         return quizService.getQuizDetailsById(quizId);
@@ -45,13 +78,38 @@ public class QuizController {
     }
 
     @GetMapping("/{quizId}/results")
-    public ResponseEntity<Object> getQuizResults(@PathVariable Integer quizId) {
-        return quizService.getQuizResults(quizId);
+    public ResponseEntity<DetailedExamResultsDto> getQuizResults(
+            @PathVariable Integer quizId,
+            @RequestParam(defaultValue = "10") int bucketWidth,
+            @RequestParam(required = false) Long afterSubmissionId,
+            @RequestParam(defaultValue = "100") int pageSize
+    ) {
+        return quizService.getQuizResults(quizId, bucketWidth, afterSubmissionId, pageSize);
+    }
+
+    // Live results (Server-Sent Events): "delta" frames with the new totals, changed histogram buckets and new submissions.
+    @GetMapping(value = "/{quizId}/results/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuizResults(@PathVariable Integer quizId) {
+        if (!quizService.quizExists(quizId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz not found with ID: " + quizId);
+        }
+        SseEmitter emitter = resultStreamService.subscribe(quizId);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live result streams, please retry.");
+        }
+        return emitter;
+    }
+
+    // Recomputes the stored result statistics of the quiz from its submissions (repairs, re-grades).
+    @PostMapping("/{quizId}/results/rebuild")
+    public ResponseEntity<Void> rebuildQuizResults(@PathVariable Integer quizId) {
+        return quizService.rebuildResultAggregate(quizId);
     }
 
     @GetMapping("/getQuestions/{quizId}")
-    public ResponseEntity<QuizSessionDto> getQuizQuestions(@PathVariable Integer quizId) {
-        return quizService.getQuizQuestions(quizId);
+    public ResponseEntity<byte[]> getQuizQuestions(@PathVariable Integer quizId,
+                                                   @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return quizService.getQuizQuestions(quizId, ifNoneMatch);
     }
 
     @GetMapping("/available")
@@ -61,15 +119,46 @@ public class QuizController {
         return quizService.getAvailableQuizzesForStudent(userId);
     }
 
+    // Starts the server-side timer of the user's attempt; calling it again returns the running attempt.
+    @PostMapping("/{quizId}/start")
+    public ResponseEntity<QuizAttemptDto> startQuiz(@PathVariable Integer quizId, @RequestParam Long userId) {
+        return quizAttemptService.start(quizId, userId);
+    }
+
+    // Autosave: only the answers changed since the last call; a blank response clears the answer.
+    @PutMapping("/{quizId}/answers")
+    public ResponseEntity<Void> autosaveAnswers(@PathVariable Integer quizId, @RequestParam Long userId,
+                                                @RequestBody List<Response> changedResponses) {
+        if (changedResponses == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(answerDraftBuffer.save(quizId, userId, changedResponses)).build();
+    }
+
+    @GetMapping("/{quizId}/answers")
+    public ResponseEntity<List<Response>> getSavedAnswers(@PathVariable Integer quizId, @RequestParam Long userId) {
+        return ResponseEntity.ok(answerDraftBuffer.get(quizId, userId));
+    }
+
+    // Returns the stored submission, or 202 with a grading handle when quiz.submission.ingest-mode=async.
     @PostMapping("/submit/{quizId}")
-    public ResponseEntity<QuizSubmission> submitQuiz(
+    public ResponseEntity<?> submitQuiz(
             @PathVariable Integer quizId,
             @RequestParam Long userId,
             @RequestBody List<Response> responses
     ) {
+        if (quizService.isAsyncGrading()) {
+            return quizService.enqueueForGrading(quizId, userId, responses);
+        }
         return quizService.calculateResult(quizId, userId, responses);
     }
 
+    // Poll target of an asynchronous submit; scores are filled in once status is DONE.
+    @GetMapping("/grading/{taskId}")
+    public ResponseEntity<GradingStatusDto> getGradingStatus(@PathVariable Long taskId, @RequestParam Long userId) {
+        return quizService.getGradingStatus(taskId, userId);
+    }
+
     @GetMapping("/history")
     public ResponseEntity<List<QuizInfoDto>> getExamHistory(
             @RequestParam Long userId
@@ -84,4 +173,38 @@ public class QuizController {
     ) {
         return quizService.getSubmissionDetails(submissionId, userId);
     }
-}
\ No newline at end of file
+
+    // Called by question-service after a question is updated or deleted.
+    // An empty body clears the whole cache. Affected quizzes are re-graded if quiz.regrade.on-question-change is set.
+    @PostMapping("/cache/questions/invalidate")
+    public ResponseEntity<Void> invalidateQuestionCache(@RequestBody(required = false) List<Integer> questionIds) {
+        quizService.invalidateCachedQuestions(questionIds);
+        return ResponseEntity.noContent().build();
+    }
+
+    // One-off conversion of submitted_answers_json rows to the compact binary format.
+    @PostMapping("/admin/submissions/migrate-answers")
+    public ResponseEntity<String> migrateSubmittedAnswers() {
+        return ResponseEntity.ok(submissionAnswerMigrationService.migrateAll());
+    }
+
+    // Re-grades the submissions of every quiz that uses one of the questions. Runs in the background.
+    @PostMapping("/admin/regrade")
+    public ResponseEntity<RegradeJobStatus> startRegrade(@RequestBody List<Integer> questionIds,
+                                                         @RequestParam(defaultValue = "false") boolean dryRun) {
+        if (questionIds == null || questionIds.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.accepted().body(regradeService.start(questionIds, dryRun));
+    }
+
+    @GetMapping("/admin/regrade/{jobId}")
+    public ResponseEntity<RegradeJobStatus> getRegradeStatus(@PathVariable String jobId) {
+        return ResponseEntity.of(regradeService.status(jobId));
+    }
+
+    @PostMapping("/admin/regrade/{jobId}/cancel")
+    public ResponseEntity<RegradeJobStatus> cancelRegrade(@PathVariable String jobId) {
+        return ResponseEntity.of(regradeService.cancel(jobId));
+    }
+}
@@ -0,0 +1,20 @@
+package quiz_service.client;
+
+import quiz_service.model.QuestionWrapper;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Calls from quiz_service to question-service. Implementations throw ResponseStatusException on failure.
+public interface QuestionServiceClient {
+
+    List<Integer> generateQuestionIds(String category, int numQuestions);
+
+    List<QuestionWrapper> getQuestions(List<Integer> questionIds);
+
+    /**
+     * Fetches the questions without blocking the caller. Large ID lists are split into chunks
+     * that are requested in parallel; the result keeps the order of the chunks.
+     */
+    CompletableFuture<List<QuestionWrapper>> getQuestionsAsync(List<Integer> questionIds);
+}
@@ -0,0 +1,119 @@
+package quiz_service.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import quiz_service.config.AppConfig;
+import quiz_service.model.QuestionWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// question-service client on top of the pooled HTTP client from AppConfig.
+// Each call type gets its own read timeout; all of them share one connection pool.
+@Component
+@Slf4j
+public class RestQuestionServiceClient implements QuestionServiceClient {
+
+    private static final String GENERATE_PATH = "/generate";
+    private static final String GET_QUESTIONS_PATH = "/getQuestions";
+
+    private final String baseUrl;
+    private final int chunkSize;
+    private final RestTemplate generateTemplate;
+    private final RestTemplate lookupTemplate;
+    private final AsyncTaskExecutor executor;
+
+    public RestQuestionServiceClient(CloseableHttpClient interServiceHttpClient,
+                                     @Qualifier("questionServiceExecutor") AsyncTaskExecutor executor,
+                                     @Value("${quiz.question-service.base-url:http://localhost:8081/question}") String baseUrl,
+                                     @Value("${quiz.question-service.chunk-size:200}") int chunkSize,
+                                     @Value("${quiz.question-service.generate-timeout-ms:5000}") int generateTimeoutMs,
+                                     @Value("${quiz.question-service.lookup-timeout-ms:3000}") int lookupTimeoutMs) {
+        this.baseUrl = baseUrl;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.executor = executor;
+        this.generateTemplate = new RestTemplate(AppConfig.timedRequestFactory(interServiceHttpClient, generateTimeoutMs));
+        this.lookupTemplate = new RestTemplate(AppConfig.timedRequestFactory(interServiceHttpClient, lookupTimeoutMs));
+    }
+
+    @Override
+    public List<Integer> generateQuestionIds(String category, int numQuestions) {
+        String generateUrl = UriComponentsBuilder.fromHttpUrl(baseUrl + GENERATE_PATH)
+                .queryParam("numQuestions", numQuestions).queryParam("categoryName", category).toUriString();
+        ResponseEntity<List<Integer>> response;
+        try {
+            response = generateTemplate.exchange(generateUrl, HttpMethod.POST, null, new ParameterizedTypeReference<>() {});
+        } catch (Exception e) {
+            log.error("Error from Question Service for URL {}: {}", generateUrl, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error generating questions.", e);
+        }
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Invalid response from Question Service.");
+        }
+        return response.getBody();
+    }
+
+    @Override
+    public List<QuestionWrapper> getQuestions(List<Integer> questionIds) {
+        if (questionIds.size() <= chunkSize) {
+            return fetchChunk(questionIds);
+        }
+        try {
+            return getQuestionsAsync(questionIds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<QuestionWrapper>> getQuestionsAsync(List<Integer> questionIds) {
+        List<CompletableFuture<List<QuestionWrapper>>> futures = new ArrayList<>();
+        for (int from = 0; from < questionIds.size(); from += chunkSize) {
+            List<Integer> chunk = List.copyOf(questionIds.subList(from, Math.min(from + chunkSize, questionIds.size())));
+            futures.add(CompletableFuture.supplyAsync(() -> fetchChunk(chunk), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<QuestionWrapper> all = new ArrayList<>(questionIds.size());
+            futures.forEach(future -> all.addAll(future.join()));
+            return all;
+        });
+    }
+
+    private List<QuestionWrapper> fetchChunk(List<Integer> questionIds) {
+        String getQuestionsUrl = baseUrl + GET_QUESTIONS_PATH;
+        try {
+            ResponseEntity<List<QuestionWrapper>> response = lookupTemplate.exchange(
+                    getQuestionsUrl, HttpMethod.POST, new HttpEntity<>(questionIds),
+                    new ParameterizedTypeReference<List<QuestionWrapper>>() {});
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                response.getBody().forEach(q -> { if (q.getPoints() == null) q.setPoints(0); });
+                return response.getBody();
+            } else {
+                log.error("Failed to fetch questions data. Status: {}", response.getStatusCode());
+                throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY, "Could not fetch question details");
+            }
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error during fetchQuestionsData for IDs {}: {}", questionIds, e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Error communicating with Question Service", e);
+        }
+    }
+}
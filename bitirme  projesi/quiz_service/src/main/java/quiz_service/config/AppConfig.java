@@ -1,15 +1,110 @@
 package quiz_service.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class AppConfig {
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    // Shared, pooled HTTP client for calls to other services (keep-alive connections are reused).
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient interServiceHttpClient(
+            @Value("${quiz.http-client.max-connections:200}") int maxConnections,
+            @Value("${quiz.http-client.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${quiz.http-client.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${quiz.http-client.keep-alive-seconds:30}") long keepAliveSeconds) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * Request factory on the shared pooled client with its own read (response) timeout,
+     * so different calls can use different timeouts without separate connection pools.
+     */
+    public static HttpComponentsClientHttpRequestFactory timedRequestFactory(CloseableHttpClient httpClient, int readTimeoutMs) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected RequestConfig createRequestConfig(Object client) {
+                return RequestConfig.copy(super.createRequestConfig(client))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build();
+            }
+        };
+        requestFactory.setConnectionRequestTimeout(readTimeoutMs);
+        return requestFactory;
     }
-}
 
+    // Bounded pool used by the async question-service client to fetch ID chunks in parallel.
+    @Bean(name = "questionServiceExecutor")
+    public ThreadPoolTaskExecutor questionServiceExecutor(
+            @Value("${quiz.question-service.async-threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("question-client-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Builds exam session payloads on a cache miss; callers wait for the build, so the queue stays short.
+    @Bean(name = "examSessionExecutor")
+    public ThreadPoolTaskExecutor examSessionExecutor(
+            @Value("${quiz.session-cache.build-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("exam-session-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Re-grade jobs run one at a time, in the order they were requested.
+    @Bean(name = "regradeExecutor")
+    public ThreadPoolTaskExecutor regradeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("regrade-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Finalizes quiz attempts whose timer expired; keeps grading off the timing wheel thread.
+    @Bean(name = "attemptFinalizeExecutor")
+    public ThreadPoolTaskExecutor attemptFinalizeExecutor(
+            @Value("${quiz.attempt.finalize-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(Integer.MAX_VALUE); // Expiries must not be dropped
+        executor.setThreadNamePrefix("attempt-finalize-");
+        executor.initialize();
+        return executor;
+    }
+}
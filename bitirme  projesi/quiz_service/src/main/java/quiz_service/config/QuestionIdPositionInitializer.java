@@ -0,0 +1,50 @@
+package quiz_service.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// quiz_question_ids got a position column for Quiz.questionIdList. ddl-auto=update would add it as
+// NOT NULL and fail on existing rows, so this adds it as nullable before Hibernate starts and numbers
+// the old rows once, in physical order: the order they were always read back in.
+@Component
+@Slf4j
+public class QuestionIdPositionInitializer {
+
+    private static final String BACKFILL_SQL =
+            "UPDATE quiz_question_ids i SET position = n.position FROM (SELECT ctid AS row_id, " +
+            "row_number() OVER (PARTITION BY quiz_id ORDER BY ctid) - 1 AS position " +
+            "FROM quiz_question_ids WHERE position IS NULL) n WHERE i.ctid = n.row_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionIdPositionInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void numberLegacyRows() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass('quiz_question_ids') IS NOT NULL", Boolean.class);
+            if (!Boolean.TRUE.equals(exists)) {
+                return; // New database: Hibernate creates the table with the column
+            }
+            jdbcTemplate.execute("ALTER TABLE quiz_question_ids ADD COLUMN IF NOT EXISTS position integer");
+            int rows = jdbcTemplate.update(BACKFILL_SQL);
+            if (rows > 0) {
+                log.info("Numbered {} quiz_question_ids rows stored without a position.", rows);
+            }
+        } catch (Exception e) {
+            log.warn("Could not add positions to quiz_question_ids: {}", e.getMessage());
+        }
+    }
+
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super("questionIdPositionInitializer");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package quiz_service.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import quiz_service.service.QuestionIdStorage;
+
+// Moves quizzes saved under the other quiz.question-ids.storage mode over at startup, before the
+// web server serves requests that read the IDs.
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class QuestionIdStorageInitializer {
+
+    private final QuestionIdStorage questionIdStorage;
+
+    public QuestionIdStorageInitializer(QuestionIdStorage questionIdStorage) {
+        this.questionIdStorage = questionIdStorage;
+    }
+
+    @PostConstruct
+    public void migrateStorage() {
+        try {
+            questionIdStorage.migrate();
+        } catch (Exception e) {
+            log.warn("Could not migrate quiz question IDs to {} storage: {}", questionIdStorage.getMode(), e.getMessage());
+        }
+    }
+}
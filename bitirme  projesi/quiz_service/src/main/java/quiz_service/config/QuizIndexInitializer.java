@@ -0,0 +1,37 @@
+package quiz_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Indexes in the exact order of the instructor quiz pages (start_date DESC NULLS LAST, id DESC).
+// JPA @Index cannot express NULLS LAST, so they are created here.
+@Component
+@Slf4j
+public class QuizIndexInitializer implements ApplicationRunner {
+
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_quiz_start_date_id ON quiz (start_date DESC NULLS LAST, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_quiz_status_start_date_id ON quiz (status, start_date DESC NULLS LAST, id DESC)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuizIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String sql : INDEXES) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                log.warn("Could not create quiz index ({}): {}", sql, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package quiz_service.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// quiz_submission used IDENTITY ids before quiz_submission_seq existed. Moves the sequence past
+// the highest existing id so ids handed out by the pooled optimizer never collide with old rows.
+// Runs while the context starts, after Hibernate has created the sequence and before the web
+// server or any ingest path can insert; SubmissionWriter depends on it.
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SubmissionSequenceInitializer {
+
+    private static final String ALIGN_SQL =
+            "SELECT setval('quiz_submission_seq', GREATEST((SELECT last_value FROM quiz_submission_seq), " +
+            "(SELECT COALESCE(MAX(id), 0) FROM quiz_submission) + 50))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubmissionSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            Long value = jdbcTemplate.queryForObject(ALIGN_SQL, Long.class);
+            log.info("quiz_submission_seq aligned to {}.", value);
+        } catch (Exception e) {
+            log.warn("Could not align quiz_submission_seq: {}", e.getMessage());
+        }
+    }
+}
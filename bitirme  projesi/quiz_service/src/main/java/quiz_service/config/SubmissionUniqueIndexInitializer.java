@@ -0,0 +1,40 @@
+package quiz_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// ddl-auto=update does not add unique constraints to an existing table. Creates the unique
+// (user_id, quiz_id) index that makes submits idempotent and drops the plain index it replaces.
+// Duplicates stored before the index existed must be cleaned up by hand first; until then the
+// old index is kept and a warning is logged on every start.
+@Component
+@Slf4j
+public class SubmissionUniqueIndexInitializer implements ApplicationRunner {
+
+    private static final String DUPLICATES_SQL =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM quiz_submission GROUP BY user_id, quiz_id HAVING COUNT(*) > 1) d";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubmissionUniqueIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Long duplicates = jdbcTemplate.queryForObject(DUPLICATES_SQL, Long.class);
+            if (duplicates != null && duplicates > 0) {
+                log.warn("{} (user_id, quiz_id) pairs have more than one quiz_submission; unique index not created.", duplicates);
+                return;
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_quiz_submission_user_id_quiz_id ON quiz_submission (user_id, quiz_id)");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_quiz_submission_user_id_quiz_id");
+        } catch (Exception e) {
+            log.warn("Could not create the unique quiz_submission index: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package quiz_service.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import quiz_service.model.GradingTask;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GradingTaskRepository extends JpaRepository<GradingTask, Long> {
+
+    // Pending tasks, and tasks whose worker died (claim older than staleBefore), oldest first.
+    @Query("SELECT t.id FROM GradingTask t WHERE t.status = 'PENDING' " +
+            "OR (t.status = 'PROCESSING' AND t.claimedAt < :staleBefore) ORDER BY t.id")
+    List<Long> findClaimableIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    // Conditional, so a task is claimed by one worker even with several instances polling.
+    @Modifying
+    @Transactional
+    @Query("UPDATE GradingTask t SET t.status = 'PROCESSING', t.claimToken = :token, t.claimedAt = :now, " +
+            "t.attempts = t.attempts + 1 WHERE t.id IN :ids " +
+            "AND (t.status = 'PENDING' OR (t.status = 'PROCESSING' AND t.claimedAt < :staleBefore))")
+    int claim(@Param("ids") List<Long> ids, @Param("token") String token, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    List<GradingTask> findByClaimTokenOrderByQuizIdAscIdAsc(String claimToken);
+
+    long countByStatusIn(List<String> statuses);
+
+    Optional<GradingTask> findFirstByUserIdAndQuizIdAndStatusNotOrderByIdDesc(Long userId, Integer quizId, String status);
+
+    // Puts the task back into the queue (retry) or gives up on it; no-op if another worker took it over.
+    @Modifying
+    @Transactional
+    @Query("UPDATE GradingTask t SET t.status = :status, t.claimToken = NULL, t.error = :error, t.finishedAt = :finishedAt " +
+            "WHERE t.id = :id AND t.claimToken = :token")
+    int release(@Param("id") Long id, @Param("token") String token, @Param("status") String status,
+                @Param("error") String error, @Param("finishedAt") LocalDateTime finishedAt);
+
+    // Marks the task done with a submission that was already stored for the same user and quiz.
+    @Modifying
+    @Transactional
+    @Query("UPDATE GradingTask t SET t.status = 'DONE', t.claimToken = NULL, t.submissionId = :submissionId, " +
+            "t.finishedAt = :finishedAt WHERE t.id = :id AND t.claimToken = :token")
+    int completeWithExisting(@Param("id") Long id, @Param("token") String token,
+                             @Param("submissionId") Long submissionId, @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -0,0 +1,22 @@
+package quiz_service.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import quiz_service.model.QuizAnswerDraft;
+
+import java.util.Optional;
+
+@Repository
+public interface QuizAnswerDraftRepository extends JpaRepository<QuizAnswerDraft, Long> {
+
+    Optional<QuizAnswerDraft> findByQuizIdAndUserId(Integer quizId, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM QuizAnswerDraft d WHERE d.quizId = :quizId AND d.userId = :userId")
+    int deleteByQuizIdAndUserId(@Param("quizId") Integer quizId, @Param("userId") Long userId);
+}
@@ -0,0 +1,26 @@
+package quiz_service.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import quiz_service.model.QuizAttempt;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
+
+    Optional<QuizAttempt> findByQuizIdAndUserId(Integer quizId, Long userId);
+
+    List<QuizAttempt> findByStatus(String status);
+
+    // Only one of submit, expiry and other instances wins the move out of fromStatus.
+    @Modifying
+    @Transactional
+    @Query("UPDATE QuizAttempt a SET a.status = :status WHERE a.id = :id AND a.status = :fromStatus")
+    int updateStatus(@Param("id") Long id, @Param("status") String status, @Param("fromStatus") String fromStatus);
+}
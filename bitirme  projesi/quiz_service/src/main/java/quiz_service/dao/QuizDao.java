@@ -1,15 +1,69 @@
 package quiz_service.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import quiz_service.model.Quiz;
+import quiz_service.model.QuizInfoDto;
+import quiz_service.model.QuizSummaryDto;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuizDao extends JpaRepository<Quiz, Integer> {
 
+    // Detail lookups load the question IDs in the same query (array storage has them on the row anyway).
+    @Override
+    @EntityGraph(attributePaths = "questionIdList")
+    Optional<Quiz> findById(Integer id);
+
     List<Quiz> findByStatusIn(List<String> statuses);
 
+    String SUMMARY_SELECT = "SELECT new quiz_service.model.QuizSummaryDto(q.id, q.title, q.description, q.status, " +
+            "q.durationMinutes, q.startDate, q.endDate, q.passingScore, q.totalPoints, " +
+            "COALESCE(array_length(q.questionIdArray), SIZE(q.questionIdList))) FROM Quiz q ";
+    String SUMMARY_ORDER = " ORDER BY q.startDate DESC NULLS LAST, q.id DESC";
+
+    @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+    List<QuizSummaryDto> findAllSummaries();
+
+    // Keyset pages in SUMMARY_ORDER (newest start date first, undated quizzes last). Pass PageRequest.of(0, size).
+    @Query(SUMMARY_SELECT + "WHERE q.status IN :statuses" + SUMMARY_ORDER)
+    List<QuizSummaryDto> findSummaryPage(@Param("statuses") List<String> statuses, Pageable pageable);
+
+    // Next page after a quiz with a start date: later rows of the same date, older dates, then undated quizzes.
+    @Query(SUMMARY_SELECT + "WHERE q.status IN :statuses AND (q.startDate < :afterStartDate " +
+            "OR (q.startDate = :afterStartDate AND q.id < :afterId) OR q.startDate IS NULL)" + SUMMARY_ORDER)
+    List<QuizSummaryDto> findSummaryPageAfter(@Param("statuses") List<String> statuses,
+                                              @Param("afterStartDate") LocalDateTime afterStartDate,
+                                              @Param("afterId") Integer afterId, Pageable pageable);
+
+    // Next page after an undated quiz: only undated quizzes remain.
+    @Query(SUMMARY_SELECT + "WHERE q.status IN :statuses AND q.startDate IS NULL AND q.id < :afterId" + SUMMARY_ORDER)
+    List<QuizSummaryDto> findUndatedSummaryPageAfter(@Param("statuses") List<String> statuses,
+                                                     @Param("afterId") Integer afterId, Pageable pageable);
+
     // Method to find quizzes by a single status (needed for history)
     List<Quiz> findByStatus(String status); // Ensure this exists
+
+    // Open quizzes the user has not submitted yet, as rows for the available quizzes view.
+    @Query("SELECT new quiz_service.model.QuizInfoDto(q.id, q.title, q.status, q.durationMinutes, " +
+            "q.startDate, q.endDate, q.passingScore) " +
+            "FROM Quiz q WHERE q.status IN :statuses AND (q.endDate IS NULL OR q.endDate > :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM QuizSubmission s WHERE s.quizId = q.id AND s.userId = :userId) " +
+            "ORDER BY q.id")
+    List<QuizInfoDto> findAvailableForUser(@Param("userId") Long userId, @Param("statuses") List<String> statuses,
+                                           @Param("now") LocalDateTime now);
+
+    // Conditional so that repeated or late transitions never move a quiz backwards.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Quiz q SET q.status = :status WHERE q.id = :id AND q.status IN :fromStatuses")
+    int updateStatus(@Param("id") Integer id, @Param("status") String status, @Param("fromStatuses") List<String> fromStatuses);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package quiz_service.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import quiz_service.model.QuizQuestionKey;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuizQuestionKeyRepository extends JpaRepository<QuizQuestionKey, Long> {
+    List<QuizQuestionKey> findByQuizIdOrderByPositionAsc(Integer quizId);
+
+    @Query("SELECT DISTINCT k.quizId FROM QuizQuestionKey k WHERE k.questionId IN :questionIds")
+    List<Integer> findQuizIdsByQuestionIds(@Param("questionIds") Collection<Integer> questionIds);
+
+    @Query("SELECT DISTINCT k.quizId FROM QuizQuestionKey k")
+    List<Integer> findAllQuizIds();
+
+    @Modifying
+    @Query("DELETE FROM QuizQuestionKey k WHERE k.quizId = :quizId")
+    int deleteByQuizId(@Param("quizId") Integer quizId);
+}
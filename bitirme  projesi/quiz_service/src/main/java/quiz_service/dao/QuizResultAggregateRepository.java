@@ -0,0 +1,26 @@
+package quiz_service.dao;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import quiz_service.model.QuizResultAggregate;
+import java.util.Optional;
+
+@Repository
+public interface QuizResultAggregateRepository extends JpaRepository<QuizResultAggregate, Integer> {
+
+    // Creates the empty row if needed; safe when several submissions of the same quiz race.
+    @Modifying
+    @Query(value = "INSERT INTO quiz_result_aggregate (quiz_id, participant_count, scored_count, points_sum, " +
+            "points_square_sum, percentage_sum, passed_count, failed_count) " +
+            "VALUES (:quizId, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT (quiz_id) DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("quizId") Integer quizId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM QuizResultAggregate a WHERE a.quizId = :quizId")
+    Optional<QuizResultAggregate> findForUpdate(@Param("quizId") Integer quizId);
+}
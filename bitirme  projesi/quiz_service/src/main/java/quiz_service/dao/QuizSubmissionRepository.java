@@ -1,12 +1,46 @@
 package quiz_service.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import quiz_service.model.QuizSubmission;
+import quiz_service.model.ScoreBucketCount;
+import quiz_service.model.StudentSubmissionResultDto;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuizSubmissionRepository extends JpaRepository<QuizSubmission, Long> {
     List<QuizSubmission> findByUserIdOrderBySubmissionDateDesc(Long userId);
+    List<QuizSubmission> findByUserIdAndQuizId(Long userId, Integer quizId);
+    boolean existsByUserIdAndQuizId(Long userId, Integer quizId);
+    Optional<QuizSubmission> findFirstByUserIdAndQuizIdOrderByIdAsc(Long userId, Integer quizId);
     List<QuizSubmission> findByQuizId(Integer quizId); // Sınav sonuçları için
-}
\ No newline at end of file
+
+    // Buckets are bucketWidth percent wide; 100% goes into the last bucket.
+    @Query(value = "SELECT LEAST(FLOOR(s.achieved_points * 100.0 / s.total_possible_points / :bucketWidth), :lastBucket) AS bucket, " +
+            "COUNT(*) AS submissionCount " +
+            "FROM quiz_submission s " +
+            "WHERE s.quiz_id = :quizId AND s.total_possible_points > 0 AND s.achieved_points IS NOT NULL " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<ScoreBucketCount> getScoreHistogram(@Param("quizId") Integer quizId,
+                                             @Param("bucketWidth") int bucketWidth,
+                                             @Param("lastBucket") int lastBucket);
+
+    // Keyset page: submissions of the quiz with an ID greater than afterId.
+    @Query("SELECT new quiz_service.model.StudentSubmissionResultDto(s.id, s.userId, s.submissionDate, " +
+            "s.achievedPoints, s.totalPossiblePoints, s.studentStatus) " +
+            "FROM QuizSubmission s WHERE s.quizId = :quizId AND s.id > :afterId ORDER BY s.id ASC")
+    List<StudentSubmissionResultDto> findResultPage(@Param("quizId") Integer quizId,
+                                                    @Param("afterId") long afterId,
+                                                    Pageable pageable);
+
+    // Keyset page of submissions whose answers are still in the legacy JSON column.
+    @Query("SELECT s FROM QuizSubmission s WHERE s.submittedAnswersJson IS NOT NULL AND s.id > :afterId ORDER BY s.id ASC")
+    List<QuizSubmission> findLegacyAnswerPage(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT s FROM QuizSubmission s WHERE s.quizId = :quizId AND s.id > :afterId ORDER BY s.id ASC")
+    List<QuizSubmission> findSubmissionPage(@Param("quizId") Integer quizId, @Param("afterId") long afterId, Pageable pageable);
+}
@@ -13,7 +13,12 @@ public class DetailedExamResultsDto {
     private String quizTitle;
     private Integer totalParticipants;
     private Double averageScorePercentage;
+    private Double averagePoints;
+    private Double pointsStandardDeviation;
     private Integer passingScore; // Quiz entity'sinden gelen geçme notu (yüzde)
-    private List<ScoreDistributionItemDto> scoreDistribution;
-    private List<StudentSubmissionResultDto> studentResults;
-}
\ No newline at end of file
+    private Integer passedCount;
+    private Integer failedCount;
+    private List<ScoreDistributionItemDto> scoreDistribution; // Score histogram, e.g. "0-10%", "10-20%", ...
+    private List<StudentSubmissionResultDto> studentResults; // One page, ordered by submission ID
+    private Long nextCursor; // Pass as afterSubmissionId to get the next page; null on the last page
+}
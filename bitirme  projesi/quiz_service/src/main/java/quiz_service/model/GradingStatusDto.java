@@ -0,0 +1,25 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Returned by an asynchronous submit (202) and by the grading status endpoint. Scores are set once status is DONE.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingStatusDto {
+    private Long taskId;
+    private Integer quizId;
+    private Long userId;
+    private String status; // PENDING, PROCESSING, DONE, FAILED
+    private Long submissionId;
+    private Integer achievedPoints;
+    private Integer totalPossiblePoints;
+    private String studentStatus;
+    private LocalDateTime enqueuedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+}
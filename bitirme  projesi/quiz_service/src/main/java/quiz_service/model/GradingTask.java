@@ -0,0 +1,63 @@
+package quiz_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A submission waiting to be graded (quiz.submission.ingest-mode=async). The row is the outbox: it is stored
+// before the client gets its 202 and kept afterwards so the status endpoint can report the result.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "grading_task", schema = "public",
+        indexes = {@Index(name = "idx_grading_task_status_id", columnList = "status, id"),
+                @Index(name = "idx_grading_task_claim_token", columnList = "claim_token"),
+                @Index(name = "idx_grading_task_user_id_quiz_id", columnList = "user_id, quiz_id")})
+public class GradingTask {
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "answers", nullable = false)
+    private byte[] answers; // SubmittedAnswersCodec format, text only (autosaved answers already merged in)
+
+    @Column(name = "status", length = 20, nullable = false)
+    private String status;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken; // Set by the worker that claimed the task
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "submission_id")
+    private Long submissionId;
+
+    @Column(name = "enqueued_at", nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error", length = 500)
+    private String error;
+}
@@ -4,13 +4,18 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name="quiz", schema = "public")
+@Table(name="quiz", schema = "public", indexes = @Index(name = "idx_quiz_status", columnList = "status"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Quiz {
@@ -21,11 +26,26 @@ public class Quiz {
 
     private String title;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Join table storage (quiz.question-ids.storage=table). Lazy: list queries do not need the IDs.
+    // QuizDao.findById loads them with an entity graph, other accesses load them for up to 50 quizzes per query.
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "quiz_question_ids", joinColumns = @JoinColumn(name = "quiz_id"))
     @Column(name = "question_id")
-    private List<Integer> questionIds;
+    @OrderColumn(name = "position")
+    @BatchSize(size = 50)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
+    private List<Integer> questionIdList;
 
+    // Array storage (quiz.question-ids.storage=array): the ordered IDs in one integer[] column of the quiz row.
+    @Column(name = "question_id_array")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
+    private int[] questionIdArray;
+
+    // PUBLISHED, ACTIVE or ENDED; moved along by QuizLifecycleScheduler at startDate/endDate
     @Column(name = "status", length = 50)
     private String status;
 
@@ -43,4 +63,30 @@ public class Quiz {
 
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
-}
\ No newline at end of file
+
+    // Sum of question points, filled in together with the quiz_question_key snapshot.
+    @Column(name = "total_points")
+    private Integer totalPoints;
+
+    /**
+     * Question IDs of the quiz in order, from whichever storage holds them. Writes go through
+     * {@code QuestionIdStorage.assign} so that only the configured storage is filled.
+     */
+    public List<Integer> getQuestionIds() {
+        int[] ids = questionIdArray;
+        if (ids == null) {
+            return questionIdList;
+        }
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return ids[index];
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package quiz_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Autosaved answers of an attempt that has not been submitted yet, written by AnswerDraftBuffer.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quiz_answer_draft", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_quiz_answer_draft_user_id_quiz_id", columnNames = {"user_id", "quiz_id"}))
+public class QuizAnswerDraft {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "answers", nullable = false)
+    private byte[] answers; // SubmittedAnswersCodec format, text only
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package quiz_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A student's timed run of a quiz, from the start endpoint until it is submitted or expires.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quiz_attempt", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_quiz_attempt_user_id_quiz_id", columnNames = {"user_id", "quiz_id"}),
+        indexes = @Index(name = "idx_quiz_attempt_status", columnList = "status"))
+public class QuizAttempt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "deadline")
+    private LocalDateTime deadline; // null when neither a duration nor an end date limits the attempt
+
+    // IN_PROGRESS, SUBMITTED (by the student) or EXPIRED (finalized by the timer)
+    @Column(name = "status", length = 20, nullable = false)
+    private String status;
+}
@@ -0,0 +1,20 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAttemptDto {
+    private Long attemptId;
+    private Integer quizId;
+    private Long userId;
+    private LocalDateTime startedAt;
+    private LocalDateTime deadline;
+    private Long remainingSeconds; // Measured on the server, so the client clock does not matter; null without a deadline
+    private String status;
+}
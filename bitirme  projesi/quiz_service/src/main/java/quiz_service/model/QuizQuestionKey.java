@@ -0,0 +1,39 @@
+package quiz_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Grading data of one question, copied from question-service when the quiz is saved.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quiz_question_key", schema = "public",
+        indexes = {@Index(name = "idx_quiz_question_key_quiz_id", columnList = "quiz_id"),
+                @Index(name = "idx_quiz_question_key_question_id", columnList = "question_id")})
+public class QuizQuestionKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Column(name = "question_id", nullable = false)
+    private Integer questionId;
+
+    @Column(name = "position", nullable = false)
+    private Integer position; // Index of the question inside the quiz
+
+    @Column(name = "question_type", length = 50)
+    private String questionType;
+
+    @Column(name = "points", nullable = false)
+    private Integer points;
+
+    @Column(name = "answer_key", columnDefinition = "TEXT")
+    private String answerKey; // Trimmed right answer, compared case-insensitively
+}
@@ -0,0 +1,45 @@
+package quiz_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Running result statistics of one quiz, updated in the same transaction as each submission.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quiz_result_aggregate", schema = "public")
+public class QuizResultAggregate {
+
+    public static final int HISTOGRAM_BUCKETS = 10; // 0-10%, 10-20%, ..., 90-100%
+
+    @Id
+    @Column(name = "quiz_id")
+    private Integer quizId;
+
+    @Column(name = "participant_count", nullable = false)
+    private long participantCount;
+
+    @Column(name = "scored_count", nullable = false)
+    private long scoredCount; // Submissions with total points > 0 (used for averages and the histogram)
+
+    @Column(name = "points_sum", nullable = false)
+    private long pointsSum;
+
+    @Column(name = "points_square_sum", nullable = false)
+    private long pointsSquareSum;
+
+    @Column(name = "percentage_sum", nullable = false)
+    private double percentageSum;
+
+    @Column(name = "passed_count", nullable = false)
+    private long passedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(name = "histogram")
+    private int[] histogram; // HISTOGRAM_BUCKETS counts; null until the first scored submission
+}
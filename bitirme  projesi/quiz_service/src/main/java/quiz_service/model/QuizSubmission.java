@@ -1,6 +1,7 @@
 // src/main/java/quiz_service/model/QuizSubmission.java
 package quiz_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,11 +12,17 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name="quiz_submission", schema = "public")
+// One submission per student and quiz: the unique index makes a retried submit fail instead of storing it twice
+// (created by SubmissionUniqueIndexInitializer on existing databases).
+@Table(name="quiz_submission", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_quiz_submission_user_id_quiz_id", columnNames = {"user_id", "quiz_id"}),
+        indexes = @Index(name = "idx_quiz_submission_quiz_id_id", columnList = "quiz_id, id"))
 public class QuizSubmission {
 
+    // Sequence IDs (allocated 50 at a time) let Hibernate batch inserts; IDENTITY would force one insert per row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_submission_seq")
+    @SequenceGenerator(name = "quiz_submission_seq", sequenceName = "quiz_submission_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "quiz_id", nullable = false)
@@ -34,13 +41,18 @@ public class QuizSubmission {
     private LocalDateTime submissionDate;
 
     @Column(name = "submitted_answers_json", columnDefinition = "TEXT")
-    private String submittedAnswersJson;
+    private String submittedAnswersJson; // Legacy format, null once converted to submitted_answers
 
     // --- NEW: Status specific to the student's attempt ---
     @Column(name = "student_status", length = 50) // e.g., "COMPLETED", "PASSED", "FAILED"
     private String studentStatus;
     // --- ---
 
+    // Compact binary answers, see SubmittedAnswersCodec
+    @JsonIgnore
+    @Column(name = "submitted_answers")
+    private byte[] submittedAnswers;
+
     // Optional: Quiz relationship (Lazy loaded)
     // @ManyToOne(fetch = FetchType.LAZY)
     // @JoinColumn(name = "quiz_id", insertable = false, updatable = false)
@@ -0,0 +1,24 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Row of the instructor's quiz list. Carries the number of questions instead of the ID collection.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummaryDto {
+    private Integer id;
+    private String title;
+    private String description;
+    private String status;
+    private Integer durationMinutes;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Integer passingScore;
+    private Integer totalPoints;
+    private Integer questionCount;
+}
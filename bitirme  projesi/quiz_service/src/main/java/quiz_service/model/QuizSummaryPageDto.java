@@ -0,0 +1,15 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummaryPageDto {
+    private List<QuizSummaryDto> items; // Newest start date first, quizzes without a start date last
+    private String nextCursor; // Pass as cursor to get the next page; null on the last page
+}
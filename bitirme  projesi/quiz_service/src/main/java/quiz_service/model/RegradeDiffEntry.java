@@ -0,0 +1,21 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One submission whose score or status changes when re-graded.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeDiffEntry {
+    private Long submissionId;
+    private Integer quizId;
+    private Long userId;
+    private Integer oldAchievedPoints;
+    private Integer newAchievedPoints;
+    private Integer oldTotalPoints;
+    private Integer newTotalPoints;
+    private String oldStatus;
+    private String newStatus;
+}
@@ -0,0 +1,27 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progress of a re-grade job. In dry-run mode nothing is written and diff lists the changes (up to a limit).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeJobStatus {
+    private String jobId;
+    private String state; // QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    private boolean dryRun;
+    private List<Integer> questionIds;
+    private int quizzesTotal;
+    private int quizzesDone;
+    private long submissionsScanned;
+    private long submissionsChanged;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    private List<RegradeDiffEntry> diff;
+}
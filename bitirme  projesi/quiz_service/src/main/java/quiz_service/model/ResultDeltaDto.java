@@ -0,0 +1,25 @@
+package quiz_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// One frame of the live results stream. Totals and buckets are absolute values, so a client can apply
+// frames as they come; newSubmissions lists the submissions stored since the previous frame.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultDeltaDto {
+    private Integer quizId;
+    private long sequence; // Increases by one per frame of the quiz
+    private Integer totalParticipants;
+    private Double averageScorePercentage;
+    private Integer passedCount;
+    private Integer failedCount;
+    private Map<String, Integer> changedBuckets; // Histogram buckets ("0-10%", ...) whose count changed, with the new count
+    private List<StudentSubmissionResultDto> newSubmissions; // At most quiz.results.stream.max-rows-per-frame
+    private int omittedSubmissions; // New submissions left out of newSubmissions; reload the results page to see them
+}
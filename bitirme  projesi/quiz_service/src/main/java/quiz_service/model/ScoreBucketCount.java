@@ -0,0 +1,7 @@
+package quiz_service.model;
+
+// Row of the score histogram query: bucket index and number of submissions in it.
+public interface ScoreBucketCount {
+    Number getBucket();
+    Number getSubmissionCount();
+}
@@ -1,9 +1,15 @@
 // quiz_service.model.StudentSubmissionResultDto.java
 package quiz_service.model;
 
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
-// ...
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class StudentSubmissionResultDto {
     private Long submissionId;
     private Long userId;
@@ -13,4 +19,10 @@ public class StudentSubmissionResultDto {
     private Integer achievedPoints;
     private Integer totalPossiblePoints;
     private String status;
-}
\ No newline at end of file
+
+    // Used by the results page query; names are not known to quiz_service.
+    public StudentSubmissionResultDto(Long submissionId, Long userId, LocalDateTime submissionDate,
+                                      Integer achievedPoints, Integer totalPossiblePoints, String status) {
+        this(submissionId, userId, null, null, submissionDate, achievedPoints, totalPossiblePoints, status);
+    }
+}
@@ -0,0 +1,40 @@
+package quiz_service.model;
+
+import java.util.Arrays;
+
+/** Decoded answers of one submission, held in parallel arrays sorted by question ID. */
+public final class SubmittedAnswers {
+
+    public static final SubmittedAnswers EMPTY = new SubmittedAnswers(new int[0], new String[0]);
+
+    private final int[] questionIds;
+    private final String[] texts;
+
+    public SubmittedAnswers(int[] questionIds, String[] texts) {
+        this.questionIds = questionIds;
+        this.texts = texts;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public int questionIdAt(int index) {
+        return questionIds[index];
+    }
+
+    public String textAt(int index) {
+        return texts[index];
+    }
+
+    /** Index of the question's answer, or a negative value if it was not answered. */
+    public int indexOf(int questionId) {
+        return Arrays.binarySearch(questionIds, questionId);
+    }
+
+    /** Answer text for the question, or null if it was not answered. */
+    public String answer(int questionId) {
+        int index = indexOf(questionId);
+        return index < 0 ? null : texts[index];
+    }
+}
@@ -0,0 +1,326 @@
+package quiz_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import quiz_service.dao.QuizAnswerDraftRepository;
+import quiz_service.model.Response;
+import quiz_service.model.SubmittedAnswers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds autosaved answers in memory and writes them to quiz_answer_draft in periodic batches.
+ * Sessions live in a {@link ConcurrentHashMap} keyed by (quizId, userId); each session is
+ * guarded by its own monitor, so students never contend with each other. An autosave only
+ * updates the map and marks the session dirty; every {@code flush-interval-ms} the flusher
+ * upserts the full answer set of each dirty session, however many deltas it received.
+ * Answers are accepted only for the quiz's own questions and while the user's attempt is
+ * open, as given by {@link QuizAttemptService#autosaveWindow} on the session's first autosave.
+ * <p>
+ * Submitting grades the buffered answers together with the submitted ones and then discards
+ * the draft. Sessions are loaded from the table on first use, so drafts survive a restart up
+ * to the last flush.
+ */
+@Service
+@Slf4j
+public class AnswerDraftBuffer {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO quiz_answer_draft (quiz_id, user_id, answers, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, quiz_id) DO UPDATE SET answers = EXCLUDED.answers, updated_at = EXCLUDED.updated_at";
+
+    private final QuizAnswerDraftRepository draftRepository;
+    private final QuizAttemptService attemptService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<DraftKey, DraftSession> sessions = new ConcurrentHashMap<>();
+    private final Set<DraftKey> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private final Cache<DraftKey, Boolean> closedKeys; // Submitted recently: late autosaves are refused
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    private final int batchSize;
+    private final long idleMillis;
+    private final int maxAnswers;
+    private final int maxAnswerLength;
+
+    public AnswerDraftBuffer(QuizAnswerDraftRepository draftRepository, QuizAttemptService attemptService,
+                             JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                             @Value("${quiz.autosave.flush-interval-ms:2000}") long flushIntervalMs,
+                             @Value("${quiz.autosave.batch-size:500}") int batchSize,
+                             @Value("${quiz.autosave.idle-minutes:30}") long idleMinutes,
+                             @Value("${quiz.autosave.max-answers:1000}") int maxAnswers,
+                             @Value("${quiz.autosave.max-answer-length:10000}") int maxAnswerLength) {
+        this.draftRepository = draftRepository;
+        this.attemptService = attemptService;
+        this.maxAnswers = maxAnswers;
+        this.maxAnswerLength = maxAnswerLength;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.idleMillis = Duration.ofMinutes(idleMinutes).toMillis();
+        this.closedKeys = Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(idleMinutes)).build();
+        Gauge.builder("quiz.autosave.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("quiz.autosave.dirty", dirtyKeys, Set::size).register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "answer-draft-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies answer changes to the user's draft. A blank response clears the answer. Returns
+     * NO_CONTENT when saved, BAD_REQUEST for a question outside the quiz, PAYLOAD_TOO_LARGE past
+     * {@code max-answers} or {@code max-answer-length}, CONFLICT once the attempt is submitted or
+     * past its deadline, and the refusal of {@link QuizAttemptService#autosaveWindow} otherwise.
+     */
+    public HttpStatus save(Integer quizId, Long userId, List<Response> delta) {
+        DraftKey key = new DraftKey(quizId, userId);
+        if (closedKeys.getIfPresent(key) != null) {
+            return HttpStatus.CONFLICT;
+        }
+        if (delta.size() > maxAnswers) {
+            return HttpStatus.PAYLOAD_TOO_LARGE;
+        }
+        while (true) {
+            DraftSession session = session(key);
+            QuizAttemptService.AutosaveWindow window;
+            synchronized (session) {
+                window = session.window;
+            }
+            if (window == null) {
+                // Looked up once per session; refusals are not kept, the quiz may still open
+                window = attemptService.autosaveWindow(quizId, userId);
+                if (window.refusal() != null) {
+                    return window.refusal();
+                }
+            }
+            HttpStatus invalid = validate(window, delta);
+            if (invalid != null) {
+                return invalid;
+            }
+            synchronized (session) {
+                if (session.evicted) {
+                    continue; // Dropped as idle meanwhile; its answers are in the table, load them again
+                }
+                if (session.closed || !window.isOpen(LocalDateTime.now())) {
+                    return HttpStatus.CONFLICT;
+                }
+                session.window = window;
+                for (Response response : delta) {
+                    if (response == null || response.getId() == null) {
+                        continue;
+                    }
+                    if (response.getResponse() == null || response.getResponse().isBlank()) {
+                        session.answers.remove(response.getId());
+                    } else {
+                        session.answers.put(response.getId(), response.getResponse());
+                    }
+                }
+                session.lastTouched = System.currentTimeMillis();
+                session.dirty = true;
+            }
+            dirtyKeys.add(key);
+            return HttpStatus.NO_CONTENT;
+        }
+    }
+
+    /** The user's saved answers, e.g. to restore the exam page after a reload. */
+    public List<Response> get(Integer quizId, Long userId) {
+        DraftSession session = session(new DraftKey(quizId, userId));
+        synchronized (session) {
+            return toResponses(session.answers);
+        }
+    }
+
+    /** Buffered answers overlaid with the submitted ones (which win), in one list for grading. */
+    public List<Response> merge(Integer quizId, Long userId, List<Response> submitted) {
+        DraftSession session = session(new DraftKey(quizId, userId));
+        Map<Integer, String> merged;
+        synchronized (session) {
+            if (session.answers.isEmpty()) {
+                return submitted;
+            }
+            merged = new TreeMap<>(session.answers);
+        }
+        for (Response response : submitted) {
+            if (response != null && response.getId() != null && response.getResponse() != null) {
+                merged.put(response.getId(), response.getResponse());
+            }
+        }
+        return toResponses(merged);
+    }
+
+    /** Drops the draft after the attempt has been submitted. */
+    public void discard(Integer quizId, Long userId) {
+        DraftKey key = new DraftKey(quizId, userId);
+        closedKeys.put(key, Boolean.TRUE);
+        DraftSession session = sessions.remove(key);
+        if (session != null) {
+            synchronized (session) {
+                session.closed = true;
+            }
+        }
+        dirtyKeys.remove(key);
+        flushLock.lock(); // A flush that already took this session's snapshot finishes writing first
+        try {
+            draftRepository.deleteByQuizIdAndUserId(quizId, userId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flushSafely();
+    }
+
+    private DraftSession session(DraftKey key) {
+        DraftSession session = sessions.get(key);
+        if (session != null) {
+            return session;
+        }
+        // Loaded outside computeIfAbsent so the database read does not block other keys
+        Map<Integer, String> stored = new HashMap<>();
+        draftRepository.findByQuizIdAndUserId(key.quizId(), key.userId()).ifPresent(draft -> {
+            SubmittedAnswers answers = SubmittedAnswersCodec.decode(draft.getAnswers());
+            for (int i = 0; i < answers.size(); i++) {
+                stored.put(answers.questionIdAt(i), answers.textAt(i));
+            }
+        });
+        return sessions.computeIfAbsent(key, k -> new DraftSession(stored));
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Answer draft flush failed", e);
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            List<DraftKey> batchKeys = new ArrayList<>(batchSize);
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            Iterator<DraftKey> dirty = dirtyKeys.iterator();
+            while (dirty.hasNext()) {
+                DraftKey key = dirty.next();
+                dirty.remove();
+                DraftSession session = sessions.get(key);
+                if (session == null) {
+                    continue;
+                }
+                byte[] encoded;
+                synchronized (session) {
+                    if (session.closed || !session.dirty) {
+                        continue;
+                    }
+                    session.dirty = false;
+                    encoded = SubmittedAnswersCodec.encode(toResponses(session.answers));
+                }
+                batchKeys.add(key);
+                batch.add(new Object[]{key.quizId(), key.userId(), encoded, Timestamp.valueOf(LocalDateTime.now())});
+                if (batch.size() == batchSize) {
+                    write(batchKeys, batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batchKeys, batch);
+            }
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<DraftKey> keys, List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (Exception e) {
+            log.warn("Could not write {} answer drafts, retrying on the next flush: {}", batch.size(), e.getMessage());
+            for (DraftKey key : keys) {
+                DraftSession session = sessions.get(key);
+                if (session != null) {
+                    synchronized (session) {
+                        session.dirty = true;
+                    }
+                    dirtyKeys.add(key);
+                }
+            }
+        }
+        keys.clear();
+        batch.clear();
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        sessions.forEach((key, session) -> {
+            synchronized (session) {
+                if (!session.dirty && session.lastTouched < cutoff) {
+                    session.evicted = true;
+                    sessions.remove(key, session);
+                }
+            }
+        });
+    }
+
+    // The whole delta is refused if one answer is for another quiz or too long.
+    private HttpStatus validate(QuizAttemptService.AutosaveWindow window, List<Response> delta) {
+        for (Response response : delta) {
+            if (response == null || response.getId() == null) {
+                continue;
+            }
+            if (!window.accepts(response.getId())) {
+                return HttpStatus.BAD_REQUEST;
+            }
+            if (response.getResponse() != null && response.getResponse().length() > maxAnswerLength) {
+                return HttpStatus.PAYLOAD_TOO_LARGE;
+            }
+        }
+        return null;
+    }
+
+    private static List<Response> toResponses(Map<Integer, String> answers) {
+        List<Response> responses = new ArrayList<>(answers.size());
+        answers.forEach((questionId, text) -> {
+            Response response = new Response();
+            response.setId(questionId);
+            response.setResponse(text);
+            responses.add(response);
+        });
+        return responses;
+    }
+
+    private record DraftKey(int quizId, long userId) {}
+
+    private static final class DraftSession {
+        private final Map<Integer, String> answers;
+        private QuizAttemptService.AutosaveWindow window; // Null until the first autosave
+        private boolean dirty;
+        private boolean closed;
+        private boolean evicted;
+        private long lastTouched = System.currentTimeMillis();
+
+        DraftSession(Map<Integer, String> answers) {
+            this.answers = answers;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package quiz_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import quiz_service.client.QuestionServiceClient;
+import quiz_service.dao.QuizDao;
+import quiz_service.dao.QuizQuestionKeyRepository;
+import quiz_service.model.QuestionWrapper;
+import quiz_service.model.Quiz;
+import quiz_service.model.QuizQuestionKey;
+
+import java.util.*;
+
+// Keeps a local copy of each quiz's points and right answers so grading does not call question-service.
+@Service
+@Slf4j
+public class AnswerKeyService {
+
+    private final QuizQuestionKeyRepository keyRepository;
+    private final QuizDao quizDao;
+    private final QuestionCache questionCache;
+    private final QuestionServiceClient questionServiceClient;
+    private final CompiledAnswerKeyCache compiledKeys;
+
+    public AnswerKeyService(QuizQuestionKeyRepository keyRepository, QuizDao quizDao,
+                            QuestionCache questionCache, QuestionServiceClient questionServiceClient,
+                            CompiledAnswerKeyCache compiledKeys) {
+        this.keyRepository = keyRepository;
+        this.quizDao = quizDao;
+        this.questionCache = questionCache;
+        this.questionServiceClient = questionServiceClient;
+        this.compiledKeys = compiledKeys;
+    }
+
+    // Only trimmed: case is compared at grading time, lower-casing changes the length of e.g. 'İ'.
+    public static String normalize(String answer) {
+        return answer == null ? null : answer.trim();
+    }
+
+    /**
+     * Replaces the stored answer key of the quiz with the current question data and updates
+     * {@code totalPoints}. If question-service cannot be reached the quiz is left without a key;
+     * it is then built on first use.
+     */
+    @Transactional
+    public boolean snapshot(Quiz quiz) {
+        List<QuestionWrapper> questions;
+        try {
+            questions = fetchQuestions(questionIdsOf(quiz));
+        } catch (Exception e) {
+            log.warn("Could not snapshot answer key for quiz ID {}: {}", quiz.getId(), e.getMessage());
+            keyRepository.deleteByQuizId(quiz.getId());
+            compiledKeys.invalidate(quiz.getId());
+            quiz.setTotalPoints(null);
+            quizDao.save(quiz);
+            return false;
+        }
+        storeKeys(quiz, questions);
+        return true;
+    }
+
+    /** Returns the stored answer key, building it first for quizzes saved before keys existed. */
+    @Transactional
+    public List<QuizQuestionKey> getOrCreateKeys(Quiz quiz) {
+        List<QuizQuestionKey> keys = keyRepository.findByQuizIdOrderByPositionAsc(quiz.getId());
+        if (!keys.isEmpty() && quiz.getTotalPoints() != null) {
+            return keys;
+        }
+        log.info("No answer key stored for quiz ID {}. Building it from Question Service.", quiz.getId());
+        return storeKeys(quiz, fetchQuestions(questionIdsOf(quiz)));
+    }
+
+    /** Stored answer key of the quiz, possibly empty. Never calls question-service. */
+    @Transactional(readOnly = true)
+    public List<QuizQuestionKey> findKeys(Integer quizId) {
+        return keyRepository.findByQuizIdOrderByPositionAsc(quizId);
+    }
+
+    @Transactional
+    public void deleteKeys(Integer quizId) {
+        keyRepository.deleteByQuizId(quizId);
+        compiledKeys.invalidate(quizId);
+    }
+
+    /** Answer key rows for the questions, in quiz order, without storing them. */
+    public List<QuizQuestionKey> buildKeys(Quiz quiz, List<QuestionWrapper> questions) {
+        List<QuizQuestionKey> keys = new ArrayList<>(questions.size());
+        int position = 0;
+        for (QuestionWrapper question : questions) {
+            int points = Optional.ofNullable(question.getPoints()).orElse(0);
+            keys.add(new QuizQuestionKey(null, quiz.getId(), question.getId(), position++,
+                    question.getType(), points, normalize(question.getRightanswer())));
+        }
+        return keys;
+    }
+
+    /** Replaces the stored key of the quiz with {@code keys} and updates its {@code totalPoints}. */
+    @Transactional
+    public List<QuizQuestionKey> replaceKeys(Quiz quiz, List<QuizQuestionKey> keys) {
+        keyRepository.deleteByQuizId(quiz.getId());
+        compiledKeys.invalidate(quiz.getId());
+
+        int totalPoints = keys.stream().mapToInt(QuizQuestionKey::getPoints).sum();
+        List<QuizQuestionKey> savedKeys = keyRepository.saveAll(keys);
+        quiz.setTotalPoints(totalPoints);
+        quizDao.save(quiz);
+        log.info("Stored answer key for quiz ID {}: {} questions, {} total points.", quiz.getId(), savedKeys.size(), totalPoints);
+        return savedKeys;
+    }
+
+    private List<QuizQuestionKey> storeKeys(Quiz quiz, List<QuestionWrapper> questions) {
+        return replaceKeys(quiz, buildKeys(quiz, questions));
+    }
+
+    // questionIds is lazy: quizzes from list queries may come without it
+    private List<Integer> questionIdsOf(Quiz quiz) {
+        if (Hibernate.isInitialized(quiz.getQuestionIds())) {
+            return quiz.getQuestionIds();
+        }
+        return quizDao.findById(quiz.getId()).map(Quiz::getQuestionIds).orElseGet(ArrayList::new);
+    }
+
+    private List<QuestionWrapper> fetchQuestions(List<Integer> questionIds) {
+        if (questionIds == null || questionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return questionCache.getAll(questionIds, questionServiceClient::getQuestions);
+    }
+}
@@ -0,0 +1,46 @@
+package quiz_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quiz_service.model.QuizInfoDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+// Short-lived cache of each student's available quiz list (the student dashboard polls it).
+// A student's entry is dropped when they submit; all entries are dropped when a quiz changes status.
+@Component
+public class AvailableQuizCache {
+
+    private static final String CACHE_NAME = "availableQuizzes";
+
+    private final Cache<Long, List<QuizInfoDto>> cache;
+
+    public AvailableQuizCache(@Value("${quiz.available-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${quiz.available-cache.ttl-seconds:30}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public List<QuizInfoDto> get(Long userId, Function<Long, List<QuizInfoDto>> loader) {
+        return cache.get(userId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,153 @@
+package quiz_service.service;
+
+import quiz_service.model.QuizQuestionKey;
+import quiz_service.model.Response;
+import quiz_service.model.SubmittedAnswers;
+
+import java.util.List;
+
+/**
+ * Immutable, grading-ready form of a quiz's answer key. Questions are stored in slots
+ * (quiz position order) as primitive arrays, with an open-addressing question ID to slot
+ * table. Scoring a submission allocates one int[] per call and nothing per question,
+ * so one instance can be shared by all request threads and by bulk re-grading.
+ */
+public final class CompiledAnswerKey {
+
+    private final int[] questionIds;
+    private final int[] points;
+    private final String[] answers; // Trimmed, may contain null
+    private final int[] firstSlot; // Slot that holds the answer of the slot's question ID (questions may repeat)
+    private final int totalPoints;
+    private final int[] table; // slot + 1 per bucket, 0 = empty
+    private final int mask;
+
+    private CompiledAnswerKey(List<QuizQuestionKey> keys) {
+        int size = keys.size();
+        questionIds = new int[size];
+        points = new int[size];
+        answers = new String[size];
+        firstSlot = new int[size];
+        table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1)];
+        mask = table.length - 1;
+
+        int total = 0;
+        for (int slot = 0; slot < size; slot++) {
+            QuizQuestionKey key = keys.get(slot);
+            questionIds[slot] = key.getQuestionId();
+            points[slot] = key.getPoints();
+            answers[slot] = key.getAnswerKey();
+            total += points[slot];
+
+            int existing = slotOf(questionIds[slot]);
+            if (existing < 0) {
+                int bucket = bucketOf(questionIds[slot]);
+                while (table[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                table[bucket] = slot + 1;
+                existing = slot;
+            }
+            firstSlot[slot] = existing;
+        }
+        totalPoints = total;
+    }
+
+    /** Compiles keys ordered by position, as returned by {@link AnswerKeyService#getOrCreateKeys}. */
+    public static CompiledAnswerKey compile(List<QuizQuestionKey> keys) {
+        return new CompiledAnswerKey(keys);
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public int totalPoints() {
+        return totalPoints;
+    }
+
+    /** Slot of the question, or -1 if it is not part of the quiz. */
+    public int slotOf(int questionId) {
+        int bucket = bucketOf(questionId);
+        int entry;
+        while ((entry = table[bucket]) != 0) {
+            if (questionIds[entry - 1] == questionId) {
+                return entry - 1;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Points achieved by the responses. Invalid responses and unknown question IDs are ignored;
+     * if a question is answered more than once the last response counts.
+     */
+    public int score(List<Response> responses) {
+        int[] answeredBy = new int[questionIds.length]; // 1-based index into responses, 0 = unanswered
+        for (int i = 0, n = responses.size(); i < n; i++) {
+            Response response = responses.get(i);
+            if (response == null || response.getId() == null || response.getResponse() == null) {
+                continue;
+            }
+            int slot = slotOf(response.getId());
+            if (slot >= 0) {
+                answeredBy[slot] = i + 1;
+            }
+        }
+        int achieved = 0;
+        for (int slot = 0; slot < questionIds.length; slot++) {
+            int responseIndex = answeredBy[firstSlot[slot]];
+            if (responseIndex != 0 && matches(answers[slot], responses.get(responseIndex - 1).getResponse())) {
+                achieved += points[slot];
+            }
+        }
+        return achieved;
+    }
+
+    /** Points achieved by already stored answers. */
+    public int score(SubmittedAnswers submitted) {
+        int achieved = 0;
+        for (int slot = 0; slot < questionIds.length; slot++) {
+            int index = submitted.indexOf(questionIds[slot]);
+            if (index < 0) {
+                continue;
+            }
+            String answer = submitted.textAt(index);
+            if (answer != null && matches(answers[slot], answer)) {
+                achieved += points[slot];
+            }
+        }
+        return achieved;
+    }
+
+    /** PASSED/FAILED against the passing percentage, or COMPLETED if the quiz has no passing score or points. */
+    public static String studentStatus(int achievedPoints, int totalPoints, Integer passingScore) {
+        if (passingScore == null || totalPoints <= 0) {
+            return "COMPLETED";
+        }
+        double scorePercentage = ((double) achievedPoints * 100.0) / totalPoints;
+        return scorePercentage >= passingScore ? "PASSED" : "FAILED";
+    }
+
+    // Same result as key.equalsIgnoreCase(answer.trim()), without copying the answer.
+    static boolean matches(String key, String answer) {
+        if (key == null) {
+            return false;
+        }
+        int start = 0;
+        int end = answer.length();
+        while (start < end && answer.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && answer.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == key.length() && key.regionMatches(true, 0, answer, start, end - start);
+    }
+
+    private int bucketOf(int questionId) {
+        int h = questionId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,71 @@
+package quiz_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import quiz_service.model.Quiz;
+import quiz_service.model.QuizQuestionKey;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Compiled answer keys by quiz ID. Entries are dropped whenever the stored key of the quiz changes.
+@Component
+@Slf4j
+public class CompiledAnswerKeyCache {
+
+    private static final String CACHE_NAME = "compiledAnswerKeys";
+
+    private final Cache<Integer, CompiledAnswerKey> cache;
+    private final AtomicLong invalidations = new AtomicLong(); // A key loaded across an invalidation is not cached
+
+    public CompiledAnswerKeyCache(@Value("${quiz.answer-key-cache.maximum-size:1000}") long maximumSize,
+                                  MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /** Returns the compiled key of the quiz, compiling the keys returned by {@code loader} on a miss. */
+    public CompiledAnswerKey get(Quiz quiz, Function<Quiz, List<QuizQuestionKey>> loader) {
+        CompiledAnswerKey key = cache.getIfPresent(quiz.getId());
+        if (key != null) {
+            return key;
+        }
+        // Loaded outside the cache's compute: the loader may rebuild the key and invalidate this entry itself
+        long generation = invalidations.get();
+        key = CompiledAnswerKey.compile(loader.apply(quiz));
+        if (invalidations.get() == generation) {
+            cache.put(quiz.getId(), key);
+        }
+        return key;
+    }
+
+    /**
+     * Drops the entry now and again after the current transaction commits, so a key compiled
+     * from the old rows while the change was in flight does not stay cached.
+     */
+    public void invalidate(Integer quizId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(quizId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidations.incrementAndGet();
+                    cache.invalidate(quizId);
+                }
+            });
+        }
+        log.debug("Compiled answer key of quiz ID {} invalidated.", quizId);
+    }
+}
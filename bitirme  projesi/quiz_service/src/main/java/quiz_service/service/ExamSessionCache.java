@@ -0,0 +1,84 @@
+package quiz_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Serialized exam session payloads ({@code /quiz/getQuestions/{quizId}}) by quiz ID.
+ * Concurrent requests for a quiz that is not cached share a single build, which runs on the
+ * {@code examSessionExecutor} outside the cache's map locks while all callers wait for the same
+ * future. A failed build is not cached.
+ */
+@Component
+@Slf4j
+public class ExamSessionCache {
+
+    private static final String CACHE_NAME = "examSessions";
+
+    // Ready-to-write JSON body and its quoted ETag.
+    public record SessionPayload(byte[] body, String etag) {}
+
+    private final AsyncCache<Integer, SessionPayload> cache;
+    private final ObjectMapper objectMapper;
+
+    public ExamSessionCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Qualifier("examSessionExecutor") TaskExecutor executor,
+                            @Value("${quiz.session-cache.maximum-size:500}") long maximumSize,
+                            @Value("${quiz.session-cache.ttl-minutes:5}") long ttlMinutes) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached payload of the quiz, serializing the object returned by {@code builder}
+     * on a miss. Exceptions thrown by the builder reach every waiting caller unchanged.
+     */
+    public SessionPayload get(Integer quizId, Function<Integer, Object> builder) {
+        try {
+            return cache.get(quizId, id -> serialize(id, builder.apply(id))).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(Integer quizId) {
+        cache.synchronous().invalidate(quizId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private SessionPayload serialize(Integer quizId, Object session) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(session);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            log.info("Built exam session payload for quiz ID {}: {} bytes.", quizId, body.length);
+            return new SessionPayload(body, etag);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize exam session of quiz " + quizId, e);
+        }
+    }
+}
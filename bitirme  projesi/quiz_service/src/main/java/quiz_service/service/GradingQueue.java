@@ -0,0 +1,343 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import quiz_service.dao.GradingTaskRepository;
+import quiz_service.dao.QuizDao;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous grading, enabled with {@code quiz.submission.ingest-mode=async}. Submitting only
+ * stores the answers in the grading_task outbox and returns a handle; a dispatcher thread claims
+ * pending tasks in batches of {@code batch-size} and hands each batch to one of {@code workers}
+ * grading threads. A batch is only claimed when a worker is free, so a burst of submissions waits
+ * in the table instead of piling up in memory; above {@code max-pending} queued tasks new
+ * submissions are refused with 503.
+ * <p>
+ * A batch is graded per quiz with one compiled answer key and stored in one transaction together
+ * with the task status. Tasks of a worker that died are claimed again after {@code lease-seconds};
+ * tasks that keep failing are marked FAILED after {@code max-attempts} and the student's attempt
+ * is reopened so they can submit again.
+ */
+@Service
+@ConditionalOnProperty(name = "quiz.submission.ingest-mode", havingValue = "async")
+@Slf4j
+public class GradingQueue {
+
+    private static final List<String> OPEN_STATUSES = List.of(GradingTask.PENDING, GradingTask.PROCESSING);
+
+    private final GradingTaskRepository taskRepository;
+    private final QuizDao quizDao;
+    private final QuizSubmissionRepository submissionRepository;
+    private final AnswerKeyService answerKeyService;
+    private final CompiledAnswerKeyCache compiledAnswerKeys;
+    private final SubmissionWriter submissionWriter;
+    private final AvailableQuizCache availableQuizCache;
+    private final QuizAttemptService attemptService;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+    private final Thread dispatcher;
+    private final Object wakeUp = new Object();
+    private final AtomicLong depth = new AtomicLong(); // PENDING + PROCESSING, refreshed from the table when idle
+    private final AtomicLong oldestWaitingMillis = new AtomicLong();
+    private final Timer lagTimer;
+    private final int batchSize;
+    private final long maxPending;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final Duration lease;
+    private volatile boolean running = true;
+
+    public GradingQueue(GradingTaskRepository taskRepository, QuizDao quizDao, QuizSubmissionRepository submissionRepository,
+                        AnswerKeyService answerKeyService, CompiledAnswerKeyCache compiledAnswerKeys,
+                        SubmissionWriter submissionWriter, AvailableQuizCache availableQuizCache,
+                        QuizAttemptService attemptService, MeterRegistry meterRegistry,
+                        @Value("${quiz.grading.workers:4}") int workerCount,
+                        @Value("${quiz.grading.batch-size:50}") int batchSize,
+                        @Value("${quiz.grading.max-pending:50000}") long maxPending,
+                        @Value("${quiz.grading.poll-interval-ms:200}") long pollIntervalMs,
+                        @Value("${quiz.grading.max-attempts:3}") int maxAttempts,
+                        @Value("${quiz.grading.lease-seconds:300}") long leaseSeconds) {
+        this.taskRepository = taskRepository;
+        this.quizDao = quizDao;
+        this.submissionRepository = submissionRepository;
+        this.answerKeyService = answerKeyService;
+        this.compiledAnswerKeys = compiledAnswerKeys;
+        this.submissionWriter = submissionWriter;
+        this.availableQuizCache = availableQuizCache;
+        this.attemptService = attemptService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = maxPending;
+        this.pollIntervalMs = Math.max(10, pollIntervalMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        int threads = Math.max(1, workerCount);
+        this.idleWorkers = new Semaphore(threads);
+        this.workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "grading-worker-" + (++count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "grading-dispatcher");
+        this.dispatcher.setDaemon(true);
+        Gauge.builder("quiz.grading.queue.depth", depth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("quiz.grading.lag.seconds", oldestWaitingMillis, millis -> millis.get() / 1000.0)
+                .description("Time the most recently claimed batch waited in the queue").register(meterRegistry);
+        this.lagTimer = Timer.builder("quiz.grading.lag")
+                .description("Time from submit until the graded submission was stored").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        depth.set(taskRepository.countByStatusIn(OPEN_STATUSES));
+        dispatcher.start();
+        log.info("Grading queue started with {} open tasks.", depth.get());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        workers.shutdown();
+        // Unfinished tasks stay PROCESSING and are claimed again once their lease runs out
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stores the answers (autosaved ones already merged in) for grading. Throws 503 when
+     * {@code max-pending} tasks are already waiting.
+     */
+    public GradingStatusDto enqueue(Integer quizId, Long userId, List<Response> responses) {
+        if (depth.get() >= maxPending) {
+            log.warn("Grading queue full ({} tasks), rejecting submission for Quiz ID: {}, User ID: {}", depth.get(), quizId, userId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Grading queue is full, please retry.");
+        }
+        byte[] answers = SubmittedAnswersCodec.encode(responses);
+        GradingTask task = taskRepository.save(new GradingTask(null, quizId, userId, answers, GradingTask.PENDING,
+                null, null, 0, null, LocalDateTime.now(), null, null));
+        depth.incrementAndGet();
+        synchronized (wakeUp) {
+            wakeUp.notifyAll();
+        }
+        log.info("Submission for Quiz ID: {}, User ID: {} queued for grading as task ID {}.", quizId, userId, task.getId());
+        return toStatus(task, null);
+    }
+
+    /** Status of the user's task; empty if it does not exist or belongs to someone else. */
+    public Optional<GradingStatusDto> status(Long taskId, Long userId) {
+        return taskRepository.findById(taskId)
+                .filter(task -> task.getUserId().equals(userId))
+                .map(task -> toStatus(task, task.getSubmissionId() == null ? null
+                        : submissionRepository.findById(task.getSubmissionId()).orElse(null)));
+    }
+
+    /**
+     * The user's submission of the quiz if it is stored or queued already: the task that is not
+     * FAILED, or the submission itself if it was stored without the queue. Used to answer retries.
+     */
+    public Optional<GradingStatusDto> findExisting(Integer quizId, Long userId) {
+        Optional<GradingTask> task = taskRepository.findFirstByUserIdAndQuizIdAndStatusNotOrderByIdDesc(userId, quizId, GradingTask.FAILED);
+        if (task.isPresent()) {
+            return task.map(existing -> toStatus(existing, existing.getSubmissionId() == null ? null
+                    : submissionRepository.findById(existing.getSubmissionId()).orElse(null)));
+        }
+        return submissionRepository.findFirstByUserIdAndQuizIdOrderByIdAsc(userId, quizId)
+                .map(submission -> new GradingStatusDto(null, quizId, userId, GradingTask.DONE, submission.getId(),
+                        submission.getAchievedPoints(), submission.getTotalPossiblePoints(), submission.getStudentStatus(),
+                        submission.getSubmissionDate(), submission.getSubmissionDate(), null));
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                idleWorkers.acquire();
+                List<GradingTask> batch = claimBatch();
+                if (batch.isEmpty()) {
+                    idleWorkers.release();
+                    depth.set(taskRepository.countByStatusIn(OPEN_STATUSES));
+                    synchronized (wakeUp) {
+                        wakeUp.wait(pollIntervalMs);
+                    }
+                    continue;
+                }
+                try {
+                    workers.execute(() -> {
+                        try {
+                            gradeBatch(batch);
+                        } finally {
+                            idleWorkers.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    idleWorkers.release(); // Shutting down; the lease brings the batch back
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Grading dispatcher failed to claim tasks", e);
+                idleWorkers.release();
+                sleepQuietly();
+            }
+        }
+    }
+
+    private List<GradingTask> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(lease);
+        List<Long> ids = taskRepository.findClaimableIds(staleBefore, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String token = UUID.randomUUID().toString();
+        if (taskRepository.claim(ids, token, now, staleBefore) == 0) {
+            return List.of(); // Taken by another instance
+        }
+        List<GradingTask> batch = taskRepository.findByClaimTokenOrderByQuizIdAscIdAsc(token);
+        batch.stream().map(GradingTask::getEnqueuedAt).min(Comparator.naturalOrder())
+                .ifPresent(oldest -> oldestWaitingMillis.set(Duration.between(oldest, now).toMillis()));
+        return batch;
+    }
+
+    // Runs on a grading worker. The batch is ordered by quiz ID.
+    private void gradeBatch(List<GradingTask> batch) {
+        int from = 0;
+        while (from < batch.size()) {
+            Integer quizId = batch.get(from).getQuizId();
+            int to = from;
+            while (to < batch.size() && batch.get(to).getQuizId().equals(quizId)) {
+                to++;
+            }
+            gradeQuizGroup(quizId, batch.subList(from, to));
+            from = to;
+        }
+    }
+
+    private void gradeQuizGroup(Integer quizId, List<GradingTask> tasks) {
+        Quiz quiz;
+        CompiledAnswerKey answerKey;
+        try {
+            quiz = quizDao.findById(quizId).orElse(null);
+            if (quiz == null) {
+                tasks.forEach(task -> giveUp(task, "Quiz not found"));
+                return;
+            }
+            answerKey = compiledAnswerKeys.get(quiz, answerKeyService::getOrCreateKeys); // One key for the whole group
+        } catch (Exception e) {
+            log.warn("Could not load the answer key of quiz ID {} for {} grading tasks: {}", quizId, tasks.size(), e.getMessage());
+            tasks.forEach(task -> retryOrGiveUp(task, e));
+            return;
+        }
+
+        List<QuizSubmission> submissions = new ArrayList<>(tasks.size());
+        for (GradingTask task : tasks) {
+            submissions.add(grade(task, quiz, answerKey));
+        }
+        Map<Integer, Integer> passingScores = Collections.singletonMap(quizId, quiz.getPassingScore());
+        try {
+            submissionWriter.persistGradedTasks(tasks, submissions, passingScores);
+            for (int i = 0; i < tasks.size(); i++) {
+                finished(tasks.get(i));
+            }
+        } catch (Exception e) {
+            // One bad row must not fail the whole group: retry the tasks one by one
+            log.warn("Storing {} graded tasks of quiz ID {} failed ({}). Retrying individually.", tasks.size(), quizId, e.getMessage());
+            for (int i = 0; i < tasks.size(); i++) {
+                GradingTask task = tasks.get(i);
+                QuizSubmission submission = submissions.get(i);
+                submission.setId(null);
+                try {
+                    submissionWriter.persistGradedTasks(List.of(task), List.of(submission), passingScores);
+                    finished(task);
+                } catch (Exception single) {
+                    retryOrGiveUp(task, single);
+                }
+            }
+        }
+    }
+
+    private QuizSubmission grade(GradingTask task, Quiz quiz, CompiledAnswerKey answerKey) {
+        SubmittedAnswers answers = SubmittedAnswersCodec.decode(task.getAnswers());
+        int achievedPoints = answerKey.score(answers);
+        int totalPossiblePoints = answerKey.totalPoints();
+        String studentStatus = CompiledAnswerKey.studentStatus(achievedPoints, totalPossiblePoints, quiz.getPassingScore());
+        return new QuizSubmission(null, task.getQuizId(), task.getUserId(), achievedPoints, totalPossiblePoints,
+                task.getEnqueuedAt(), null, studentStatus, task.getAnswers());
+    }
+
+    private void finished(GradingTask task) {
+        depth.decrementAndGet();
+        availableQuizCache.invalidate(task.getUserId());
+        lagTimer.record(Duration.between(task.getEnqueuedAt(), LocalDateTime.now()));
+    }
+
+    private void retryOrGiveUp(GradingTask task, Exception cause) {
+        Optional<QuizSubmission> existing = submissionRepository.findFirstByUserIdAndQuizIdOrderByIdAsc(task.getUserId(), task.getQuizId());
+        if (existing.isPresent()) {
+            // Rejected by the unique (user_id, quiz_id) index: the submission was stored by another path already
+            if (taskRepository.completeWithExisting(task.getId(), task.getClaimToken(), existing.get().getId(), LocalDateTime.now()) > 0) {
+                depth.decrementAndGet();
+            }
+            return;
+        }
+        if (task.getAttempts() >= maxAttempts) {
+            giveUp(task, cause.getMessage());
+            return;
+        }
+        taskRepository.release(task.getId(), task.getClaimToken(), GradingTask.PENDING, truncate(cause.getMessage()), null);
+    }
+
+    private void giveUp(GradingTask task, String reason) {
+        if (taskRepository.release(task.getId(), task.getClaimToken(), GradingTask.FAILED, truncate(reason), LocalDateTime.now()) == 0) {
+            return;
+        }
+        depth.decrementAndGet();
+        attemptService.reopenSubmit(task.getQuizId(), task.getUserId()); // Lets the student submit again
+        log.error("Grading task ID {} (quiz ID {}, user {}) failed after {} attempts: {}",
+                task.getId(), task.getQuizId(), task.getUserId(), task.getAttempts(), reason);
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    private static GradingStatusDto toStatus(GradingTask task, QuizSubmission submission) {
+        return new GradingStatusDto(task.getId(), task.getQuizId(), task.getUserId(), task.getStatus(), task.getSubmissionId(),
+                submission == null ? null : submission.getAchievedPoints(),
+                submission == null ? null : submission.getTotalPossiblePoints(),
+                submission == null ? null : submission.getStudentStatus(),
+                task.getEnqueuedAt(), task.getFinishedAt(), task.getError());
+    }
+}
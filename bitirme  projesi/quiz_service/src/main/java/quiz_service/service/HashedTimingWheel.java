@@ -0,0 +1,219 @@
+package quiz_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: {@code wheelSize} buckets of doubly linked timeouts, advanced by one
+ * thread every {@code tickMillis}. Scheduling and cancelling are O(1) for the caller (they only
+ * enqueue); the worker moves new timeouts into their bucket and unlinks cancelled ones on each
+ * tick. Deadlines further out than one revolution wait in their bucket for the remaining rounds.
+ * <p>
+ * Timeouts fire up to one tick late. Expired payloads are handed to {@code expiryHandler} on
+ * {@code expiryExecutor} so slow handlers never hold up the wheel.
+ */
+@Slf4j
+public class HashedTimingWheel<T> {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket<T>[] wheel;
+    private final int mask;
+    private final Queue<Timeout<T>> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Consumer<T> expiryHandler;
+    private final Executor expiryExecutor;
+    private final Thread worker;
+    private final long startTime; // Fixed, so timeouts scheduled before start() keep their deadline
+    private volatile boolean running = true;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> expiryHandler, Executor expiryExecutor) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1; // Next power of two
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket<>();
+        }
+        this.mask = size - 1;
+        this.expiryHandler = expiryHandler;
+        this.expiryExecutor = expiryExecutor;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::runLoop, name);
+        this.worker.setDaemon(true);
+    }
+
+    // Ticks missed before the start are caught up right away.
+    public void start() {
+        worker.start();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /** Schedules {@code payload} to expire after {@code delayMillis}; zero or negative delays fire on the next tick. */
+    public Timeout<T> schedule(T payload, long delayMillis) {
+        long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        Timeout<T> timeout = new Timeout<>(this, payload, deadline);
+        pendingCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /** Timeouts scheduled and neither expired nor cancelled yet. */
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    private void runLoop() {
+        long tick = 0;
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            try {
+                removeCancelled();
+                transferPending(tick);
+                wheel[(int) (tick & mask)].expire(tickDeadline);
+            } catch (Exception e) {
+                log.error("Timing wheel tick {} failed", tick, e);
+            }
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout<T> timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        Timeout<T> timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.state.get() == CANCELLED) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - currentTick) / wheel.length;
+            long ticks = Math.max(dueTick, currentTick); // Past deadlines go into the current bucket
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void fire(Timeout<T> timeout) {
+        if (!timeout.state.compareAndSet(INIT, EXPIRED)) {
+            return;
+        }
+        pendingCount.decrementAndGet();
+        try {
+            expiryExecutor.execute(() -> expiryHandler.accept(timeout.payload));
+        } catch (Exception e) {
+            log.error("Could not dispatch expired timeout {}", timeout.payload, e);
+        }
+    }
+
+    public static final class Timeout<T> {
+        private final HashedTimingWheel<T> timer;
+        private final T payload;
+        private final long deadline; // Nanos since timer start
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        private long remainingRounds;
+        private Bucket<T> bucket; // Worker thread only, like prev/next
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimingWheel<T> timer, T payload, long deadline) {
+            this.timer = timer;
+            this.payload = payload;
+            this.deadline = deadline;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        /** Returns false if the timeout already fired or was cancelled before. */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            timer.pendingCount.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long tickDeadline) {
+            Timeout<T> timeout = head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.state.get() == CANCELLED) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+                    remove(timeout);
+                    timeout.timer.fire(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.bucket != this) {
+                return; // Already unlinked
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package quiz_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quiz_service.model.QuestionWrapper;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+// In-process cache of question-service data, keyed by question ID.
+// Only the IDs that are not cached yet are sent to question-service.
+@Component
+@Slf4j
+public class QuestionCache {
+
+    private static final String CACHE_NAME = "questions";
+
+    private final Cache<Integer, QuestionWrapper> cache;
+
+    public QuestionCache(@Value("${quiz.question-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${quiz.question-cache.ttl-minutes:10}") long ttlMinutes,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Question cache initialized: maximumSize={}, ttlMinutes={}", maximumSize, ttlMinutes);
+    }
+
+    /**
+     * Returns the questions for the given IDs in the requested order. Missing IDs are loaded
+     * in a single call to {@code loader}; IDs the loader does not return are skipped.
+     */
+    public List<QuestionWrapper> getAll(List<Integer> questionIds, Function<List<Integer>, List<QuestionWrapper>> loader) {
+        Map<Integer, QuestionWrapper> found = cache.getAll(questionIds, missingIds -> {
+            log.debug("Question cache miss for {} IDs, loading from Question Service.", missingIds.size());
+            Map<Integer, QuestionWrapper> loaded = new HashMap<>();
+            for (QuestionWrapper question : loader.apply(new ArrayList<>(missingIds))) {
+                if (question != null && question.getId() != null) {
+                    loaded.put(question.getId(), question);
+                }
+            }
+            return loaded;
+        });
+
+        List<QuestionWrapper> ordered = new ArrayList<>(questionIds.size());
+        for (Integer questionId : questionIds) {
+            QuestionWrapper question = found.get(questionId);
+            if (question != null) {
+                ordered.add(question);
+            }
+        }
+        return ordered;
+    }
+
+    public void invalidate(Collection<Integer> questionIds) {
+        if (questionIds == null || questionIds.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(questionIds);
+        log.info("Invalidated {} question(s) from cache.", questionIds.size());
+        log.debug("Invalidated question IDs: {}", questionIds);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.info("Question cache cleared.");
+    }
+}
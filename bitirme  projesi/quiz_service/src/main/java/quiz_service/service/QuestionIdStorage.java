@@ -0,0 +1,90 @@
+package quiz_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import quiz_service.model.Quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Where the ordered question IDs of a quiz are kept, chosen with {@code quiz.question-ids.storage}:
+ * {@code table} (the default) uses one quiz_question_ids row per question and position,
+ * {@code array} one integer[] column on the quiz row. {@link #migrate()} moves existing quizzes to the configured storage.
+ */
+@Service
+@Slf4j
+public class QuestionIdStorage {
+
+    public enum Mode { TABLE, ARRAY }
+
+    private static final String TABLE_TO_ARRAY_SQL =
+            "UPDATE quiz q SET question_id_array = ARRAY(SELECT i.question_id FROM quiz_question_ids i " +
+            "WHERE i.quiz_id = q.id ORDER BY i.position) " +
+            "WHERE q.question_id_array IS NULL AND EXISTS (SELECT 1 FROM quiz_question_ids i WHERE i.quiz_id = q.id)";
+    private static final String DELETE_TABLE_ROWS_SQL =
+            "DELETE FROM quiz_question_ids i WHERE EXISTS " +
+            "(SELECT 1 FROM quiz q WHERE q.id = i.quiz_id AND q.question_id_array IS NOT NULL)";
+    private static final String ARRAY_TO_TABLE_SQL =
+            "INSERT INTO quiz_question_ids (quiz_id, position, question_id) " +
+            "SELECT q.id, u.position - 1, u.question_id FROM quiz q " +
+            "CROSS JOIN LATERAL unnest(q.question_id_array) WITH ORDINALITY AS u(question_id, position) " +
+            "WHERE q.question_id_array IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM quiz_question_ids i WHERE i.quiz_id = q.id)";
+    private static final String CLEAR_ARRAYS_SQL =
+            "UPDATE quiz SET question_id_array = NULL WHERE question_id_array IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+
+    public QuestionIdStorage(JdbcTemplate jdbcTemplate,
+                             @Value("${quiz.question-ids.storage:table}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** Sets the question IDs of the quiz in the configured storage and empties the other one. */
+    public void assign(Quiz quiz, List<Integer> questionIds) {
+        if (mode == Mode.ARRAY) {
+            quiz.setQuestionIdArray(questionIds.stream().mapToInt(Integer::intValue).toArray());
+            if (quiz.getQuestionIdList() != null) {
+                quiz.getQuestionIdList().clear();
+            }
+        } else {
+            quiz.setQuestionIdArray(null);
+            if (quiz.getQuestionIdList() == null) {
+                quiz.setQuestionIdList(new ArrayList<>(questionIds));
+            } else {
+                quiz.getQuestionIdList().clear();
+                quiz.getQuestionIdList().addAll(questionIds);
+            }
+        }
+    }
+
+    /** Moves quizzes still stored the other way to the configured storage. Returns the quiz rows changed. */
+    @Transactional
+    public int migrate() {
+        if (mode == Mode.ARRAY) {
+            int quizzes = jdbcTemplate.update(TABLE_TO_ARRAY_SQL);
+            int rows = jdbcTemplate.update(DELETE_TABLE_ROWS_SQL);
+            if (quizzes > 0) {
+                log.info("Moved question IDs of {} quizzes into question_id_array ({} join rows removed).", quizzes, rows);
+            }
+            return quizzes;
+        }
+        int rows = jdbcTemplate.update(ARRAY_TO_TABLE_SQL);
+        int quizzes = jdbcTemplate.update(CLEAR_ARRAYS_SQL);
+        if (quizzes > 0) {
+            log.info("Moved question IDs of {} quizzes back into quiz_question_ids ({} rows).", quizzes, rows);
+        }
+        return quizzes;
+    }
+}
@@ -0,0 +1,299 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import quiz_service.dao.QuizAttemptRepository;
+import quiz_service.dao.QuizDao;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.Quiz;
+import quiz_service.model.QuizAttempt;
+import quiz_service.model.QuizAttemptDto;
+import quiz_service.model.QuizSubmission;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces quiz durations on the server. Starting a quiz records a {@link QuizAttempt} with its
+ * deadline ({@code durationMinutes} from the start, never past the quiz end date) and registers
+ * the deadline plus {@code quiz.attempt.grace-seconds} in a {@link HashedTimingWheel}. Attempts
+ * still open when their timeout fires are finalized with their autosaved answers through the
+ * normal grading path.
+ * <p>
+ * The attempt status is moved with conditional updates, so a submit racing with the timer (or
+ * with another instance after a restart) is finalized exactly once. Open attempts are loaded
+ * again on startup; deadlines that passed while the service was down fire on the first tick.
+ */
+@Service
+@Slf4j
+public class QuizAttemptService {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String SUBMITTED = "SUBMITTED";
+    public static final String EXPIRED = "EXPIRED";
+
+    public enum SubmitClaim { CLAIMED, CLOSED, NOT_ACTIVE, NOT_FOUND }
+
+    /** Sorted question IDs that may be autosaved and until when; refusal is set when none may be. */
+    public record AutosaveWindow(HttpStatus refusal, int[] questionIds, LocalDateTime closesAt) {
+
+        static AutosaveWindow refused(HttpStatus status) {
+            return new AutosaveWindow(status, new int[0], null);
+        }
+
+        public boolean accepts(int questionId) {
+            return Arrays.binarySearch(questionIds, questionId) >= 0;
+        }
+
+        public boolean isOpen(LocalDateTime now) {
+            return refusal == null && (closesAt == null || !now.isAfter(closesAt));
+        }
+    }
+
+    private final QuizAttemptRepository attemptRepository;
+    private final QuizDao quizDao;
+    private final QuizSubmissionRepository submissionRepository;
+    private final ObjectProvider<QuizService> quizService;
+    private final HashedTimingWheel<Long> wheel;
+    private final Map<Long, HashedTimingWheel.Timeout<Long>> timers = new ConcurrentHashMap<>();
+    private final Duration grace;
+    private final long retryDelayMillis;
+
+    public QuizAttemptService(QuizAttemptRepository attemptRepository, QuizDao quizDao,
+                              QuizSubmissionRepository submissionRepository, ObjectProvider<QuizService> quizService,
+                              @Qualifier("attemptFinalizeExecutor") TaskExecutor finalizeExecutor, MeterRegistry meterRegistry,
+                              @Value("${quiz.attempt.grace-seconds:30}") long graceSeconds,
+                              @Value("${quiz.attempt.tick-ms:1000}") long tickMillis,
+                              @Value("${quiz.attempt.wheel-size:512}") int wheelSize,
+                              @Value("${quiz.attempt.retry-delay-seconds:30}") long retryDelaySeconds) {
+        this.attemptRepository = attemptRepository;
+        this.quizDao = quizDao;
+        this.submissionRepository = submissionRepository;
+        this.quizService = quizService;
+        this.grace = Duration.ofSeconds(graceSeconds);
+        this.retryDelayMillis = Duration.ofSeconds(retryDelaySeconds).toMillis();
+        this.wheel = new HashedTimingWheel<>("quiz-attempt-timer", tickMillis, wheelSize, this::expire, finalizeExecutor);
+        Gauge.builder("quiz.attempt.timers.pending", wheel, HashedTimingWheel::pendingCount).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        wheel.start();
+        List<QuizAttempt> open = attemptRepository.findByStatus(IN_PROGRESS);
+        open.forEach(this::schedule);
+        log.info("Quiz attempt timer started with {} open attempts.", open.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    /** Starts the attempt, or returns the running one unchanged so reloading the page keeps the deadline. */
+    public ResponseEntity<QuizAttemptDto> start(Integer quizId, Long userId) {
+        if (userId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        QuizAttempt existing = attemptRepository.findByQuizIdAndUserId(quizId, userId).orElse(null);
+        if (existing != null) {
+            return IN_PROGRESS.equals(existing.getStatus())
+                    ? ResponseEntity.ok(toDto(existing))
+                    : ResponseEntity.status(HttpStatus.CONFLICT).body(toDto(existing));
+        }
+        Quiz quiz = quizDao.findById(quizId).orElse(null);
+        if (quiz == null) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (!"ACTIVE".equals(QuizService.determineCurrentStatus(quiz, now))) {
+            log.warn("User {} tried to start quiz ID {} which is not active.", userId, quizId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (submissionRepository.existsByUserIdAndQuizId(userId, quizId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        LocalDateTime deadline = deadlineOf(quiz, now);
+        QuizAttempt attempt;
+        try {
+            attempt = attemptRepository.save(new QuizAttempt(null, quizId, userId, now, deadline, IN_PROGRESS));
+        } catch (DataIntegrityViolationException e) {
+            // Started concurrently (double click, second tab): answer with the attempt that won
+            return attemptRepository.findByQuizIdAndUserId(quizId, userId)
+                    .map(winner -> ResponseEntity.ok(toDto(winner)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+        schedule(attempt);
+        log.info("User {} started quiz ID {} (attempt ID {}, deadline {}).", userId, quizId, attempt.getId(), deadline);
+        return ResponseEntity.status(HttpStatus.CREATED).body(toDto(attempt));
+    }
+
+    /**
+     * Marks the user's attempt as submitted before a manual submission is graded. A quiz taken
+     * without the start endpoint gets its attempt on submit, already submitted, and only while
+     * the quiz is active (or ended less than {@code grace-seconds} ago). An attempt past its
+     * deadline plus {@code grace-seconds} is CLOSED whether or not its timer has fired yet; the
+     * expiry path grades its autosaved answers.
+     */
+    public SubmitClaim claimSubmit(Integer quizId, Long userId) {
+        QuizAttempt attempt = attemptRepository.findByQuizIdAndUserId(quizId, userId).orElse(null);
+        if (attempt == null) {
+            Quiz quiz = quizDao.findById(quizId).orElse(null);
+            if (quiz == null) {
+                return SubmitClaim.NOT_FOUND;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (!"ACTIVE".equals(QuizService.determineCurrentStatus(quiz, now))
+                    && !"ACTIVE".equals(QuizService.determineCurrentStatus(quiz, now.minus(grace)))) {
+                log.warn("User {} submitted quiz ID {} which is not active.", userId, quizId);
+                return SubmitClaim.NOT_ACTIVE;
+            }
+            try {
+                attemptRepository.save(new QuizAttempt(null, quizId, userId, now, deadlineOf(quiz, now), SUBMITTED));
+                return SubmitClaim.CLAIMED;
+            } catch (DataIntegrityViolationException e) {
+                // Started or submitted concurrently: claim the attempt that won like any other
+                attempt = attemptRepository.findByQuizIdAndUserId(quizId, userId).orElse(null);
+                if (attempt == null) {
+                    return SubmitClaim.CLOSED;
+                }
+            }
+        }
+        if (IN_PROGRESS.equals(attempt.getStatus()) && attempt.getDeadline() != null
+                && LocalDateTime.now().isAfter(attempt.getDeadline().plus(grace))) {
+            log.warn("User {} submitted quiz ID {} after the attempt deadline {}.", userId, quizId, attempt.getDeadline());
+            if (!timers.containsKey(attempt.getId())) {
+                schedule(attempt); // Not recovered yet after a restart: expire on the first tick
+            }
+            return SubmitClaim.CLOSED;
+        }
+        if (attemptRepository.updateStatus(attempt.getId(), SUBMITTED, IN_PROGRESS) == 0) {
+            return SubmitClaim.CLOSED;
+        }
+        cancelTimer(attempt.getId());
+        return SubmitClaim.CLAIMED;
+    }
+
+    /**
+     * What the user may autosave: answers to the quiz's questions until the attempt deadline plus
+     * {@code grace-seconds}. A quiz taken without the start endpoint is open until its end date,
+     * as long as it is active and the user has not submitted it.
+     */
+    public AutosaveWindow autosaveWindow(Integer quizId, Long userId) {
+        Quiz quiz = quizDao.findById(quizId).orElse(null);
+        if (quiz == null) {
+            return AutosaveWindow.refused(HttpStatus.NOT_FOUND);
+        }
+        QuizAttempt attempt = attemptRepository.findByQuizIdAndUserId(quizId, userId).orElse(null);
+        LocalDateTime closesAt;
+        if (attempt != null) {
+            if (!IN_PROGRESS.equals(attempt.getStatus())) {
+                return AutosaveWindow.refused(HttpStatus.CONFLICT);
+            }
+            closesAt = attempt.getDeadline();
+        } else {
+            if (!"ACTIVE".equals(QuizService.determineCurrentStatus(quiz, LocalDateTime.now()))) {
+                return AutosaveWindow.refused(HttpStatus.FORBIDDEN);
+            }
+            if (submissionRepository.existsByUserIdAndQuizId(userId, quizId)) {
+                return AutosaveWindow.refused(HttpStatus.CONFLICT);
+            }
+            closesAt = quiz.getEndDate();
+        }
+        List<Integer> questionIds = quiz.getQuestionIds() != null ? quiz.getQuestionIds() : List.of();
+        int[] sortedIds = questionIds.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).sorted().distinct().toArray();
+        return new AutosaveWindow(null, sortedIds, closesAt != null ? closesAt.plus(grace) : null);
+    }
+
+    /** Undoes {@link #claimSubmit} when the submission could not be saved, so the student can retry. */
+    public void reopenSubmit(Integer quizId, Long userId) {
+        attemptRepository.findByQuizIdAndUserId(quizId, userId).ifPresent(attempt -> {
+            if (attemptRepository.updateStatus(attempt.getId(), IN_PROGRESS, SUBMITTED) > 0) {
+                schedule(attempt);
+            }
+        });
+    }
+
+    // durationMinutes from now, never past the quiz end date; null if neither limits the attempt.
+    private static LocalDateTime deadlineOf(Quiz quiz, LocalDateTime now) {
+        LocalDateTime deadline = quiz.getDurationMinutes() != null && quiz.getDurationMinutes() > 0
+                ? now.plusMinutes(quiz.getDurationMinutes()) : null;
+        if (quiz.getEndDate() != null && (deadline == null || quiz.getEndDate().isBefore(deadline))) {
+            deadline = quiz.getEndDate();
+        }
+        return deadline;
+    }
+
+    private void schedule(QuizAttempt attempt) {
+        if (attempt.getDeadline() == null) {
+            return;
+        }
+        long delayMillis = Duration.between(LocalDateTime.now(), attempt.getDeadline().plus(grace)).toMillis();
+        schedule(attempt.getId(), delayMillis);
+    }
+
+    private void schedule(Long attemptId, long delayMillis) {
+        HashedTimingWheel.Timeout<Long> previous = timers.put(attemptId, wheel.schedule(attemptId, delayMillis));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void cancelTimer(Long attemptId) {
+        HashedTimingWheel.Timeout<Long> timeout = timers.remove(attemptId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    // Runs on attemptFinalizeExecutor
+    private void expire(Long attemptId) {
+        timers.remove(attemptId);
+        QuizAttempt attempt = attemptRepository.findById(attemptId).orElse(null);
+        if (attempt == null || attemptRepository.updateStatus(attemptId, EXPIRED, IN_PROGRESS) == 0) {
+            return; // Submitted meanwhile or finalized by another instance
+        }
+        ResponseEntity<QuizSubmission> result;
+        try {
+            // Graded from the autosaved answers (see AnswerDraftBuffer)
+            result = quizService.getObject().gradeAndSave(attempt.getQuizId(), attempt.getUserId(), List.of());
+        } catch (ResponseStatusException e) {
+            log.warn("Quiz ID {} of expired attempt ID {} cannot be graded: {}", attempt.getQuizId(), attemptId, e.getReason());
+            return;
+        } catch (Exception e) {
+            log.error("Auto-submit of expired attempt ID {} failed", attemptId, e);
+            result = null;
+        }
+        if (result != null && result.getStatusCode().is2xxSuccessful()) {
+            log.info("Attempt ID {} (quiz ID {}, user {}) expired and was submitted automatically.",
+                    attemptId, attempt.getQuizId(), attempt.getUserId());
+        } else if (attemptRepository.updateStatus(attemptId, IN_PROGRESS, EXPIRED) > 0) {
+            schedule(attemptId, retryDelayMillis);
+        }
+    }
+
+    private QuizAttemptDto toDto(QuizAttempt attempt) {
+        Long remainingSeconds = attempt.getDeadline() == null ? null
+                : Math.max(0, Duration.between(LocalDateTime.now(), attempt.getDeadline()).toSeconds());
+        return new QuizAttemptDto(attempt.getId(), attempt.getQuizId(), attempt.getUserId(),
+                attempt.getStartedAt(), attempt.getDeadline(), remainingSeconds, attempt.getStatus());
+    }
+}
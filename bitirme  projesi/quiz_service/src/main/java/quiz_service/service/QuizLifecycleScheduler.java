@@ -0,0 +1,172 @@
+package quiz_service.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import quiz_service.dao.QuizDao;
+import quiz_service.model.Quiz;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists quiz status changes when they happen instead of deriving them on every request:
+ * PUBLISHED -> ACTIVE at {@code startDate} and -> ENDED at {@code endDate}. Pending transitions
+ * sit in a {@link DelayQueue} served by one thread; {@code warm-lead-minutes} before a quiz
+ * starts its session payload and compiled answer key are loaded into the caches.
+ * <p>
+ * Every transition remembers the quiz date it was scheduled for and is dropped if the quiz
+ * has been edited or deleted since. On startup, open quizzes are loaded once to apply
+ * transitions that were missed while the service was down and to schedule the rest.
+ */
+@Component
+@Slf4j
+public class QuizLifecycleScheduler {
+
+    private enum Kind { WARM, ACTIVATE, END }
+
+    private static final List<String> OPEN_STATUSES = List.of("PUBLISHED", "ACTIVE");
+
+    private final QuizDao quizDao;
+    private final ObjectProvider<QuizService> quizService;
+    private final AvailableQuizCache availableQuizCache;
+    private final Duration warmLead;
+    private final DelayQueue<Transition> queue = new DelayQueue<>();
+    private final Thread worker;
+
+    public QuizLifecycleScheduler(QuizDao quizDao, ObjectProvider<QuizService> quizService, AvailableQuizCache availableQuizCache,
+                                  @Value("${quiz.lifecycle.warm-lead-minutes:3}") long warmLeadMinutes) {
+        this.quizDao = quizDao;
+        this.quizService = quizService;
+        this.availableQuizCache = availableQuizCache;
+        this.warmLead = Duration.ofMinutes(warmLeadMinutes);
+        this.worker = new Thread(this::runLoop, "quiz-lifecycle");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Quiz> openQuizzes = quizDao.findByStatusIn(OPEN_STATUSES);
+        for (Quiz quiz : openQuizzes) {
+            String current = QuizService.determineCurrentStatus(quiz, now);
+            if (!current.equals(quiz.getStatus())) {
+                quizDao.updateStatus(quiz.getId(), current, OPEN_STATUSES);
+                log.info("Quiz ID {} caught up from {} to {}.", quiz.getId(), quiz.getStatus(), current);
+            }
+            schedule(quiz);
+        }
+        worker.start();
+        log.info("Quiz lifecycle scheduler started with {} pending transitions.", queue.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.interrupt();
+    }
+
+    /** (Re)schedules the future transitions of the quiz, replacing any scheduled before. */
+    public void schedule(Quiz quiz) {
+        cancel(quiz.getId());
+        if (!OPEN_STATUSES.contains(quiz.getStatus())) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = quiz.getStartDate();
+        if (start != null && start.isAfter(now)) {
+            queue.add(new Transition(quiz.getId(), Kind.WARM, start, start.minus(warmLead)));
+            queue.add(new Transition(quiz.getId(), Kind.ACTIVATE, start, start));
+        }
+        LocalDateTime end = quiz.getEndDate();
+        if (end != null && end.isAfter(now)) {
+            queue.add(new Transition(quiz.getId(), Kind.END, end, end));
+        }
+    }
+
+    public void cancel(Integer quizId) {
+        queue.removeIf(transition -> transition.quizId.equals(quizId));
+    }
+
+    private void runLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Transition transition;
+            try {
+                transition = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                apply(transition);
+            } catch (Exception e) {
+                log.error("Quiz lifecycle transition {} failed for quiz ID {}", transition.kind, transition.quizId, e);
+            }
+        }
+    }
+
+    private void apply(Transition transition) {
+        Quiz quiz = quizDao.findById(transition.quizId).orElse(null);
+        if (quiz == null) {
+            return;
+        }
+        switch (transition.kind) {
+            case WARM -> {
+                if (sameTime(quiz.getStartDate(), transition.quizDate)) {
+                    quizService.getObject().warmQuiz(quiz);
+                }
+            }
+            case ACTIVATE -> {
+                if (sameTime(quiz.getStartDate(), transition.quizDate)
+                        && quizDao.updateStatus(quiz.getId(), "ACTIVE", List.of("PUBLISHED")) > 0) {
+                    availableQuizCache.invalidateAll();
+                    log.info("Quiz ID {} is now ACTIVE.", quiz.getId());
+                }
+            }
+            case END -> {
+                if (sameTime(quiz.getEndDate(), transition.quizDate)
+                        && quizDao.updateStatus(quiz.getId(), "ENDED", OPEN_STATUSES) > 0) {
+                    availableQuizCache.invalidateAll();
+                    log.info("Quiz ID {} is now ENDED.", quiz.getId());
+                }
+            }
+        }
+    }
+
+    // The database may store the dates with less precision than the value that was scheduled
+    private static boolean sameTime(LocalDateTime current, LocalDateTime scheduled) {
+        return current != null && Math.abs(Duration.between(current, scheduled).toMillis()) < 1000;
+    }
+
+    private static final class Transition implements Delayed {
+        private final Integer quizId;
+        private final Kind kind;
+        private final LocalDateTime quizDate; // startDate or endDate the transition was scheduled for
+        private final long dueMillis;
+
+        Transition(Integer quizId, Kind kind, LocalDateTime quizDate, LocalDateTime due) {
+            this.quizId = quizId;
+            this.kind = kind;
+            this.quizDate = quizDate;
+            this.dueMillis = due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Transition) other).dueMillis);
+        }
+    }
+}
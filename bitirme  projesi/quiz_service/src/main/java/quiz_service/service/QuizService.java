@@ -1,21 +1,21 @@
 package quiz_service.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.*;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.util.UriComponentsBuilder;
+import quiz_service.client.QuestionServiceClient;
 import quiz_service.dao.QuizDao;
 import quiz_service.dao.QuizSubmissionRepository;
 import quiz_service.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
@@ -25,49 +25,85 @@ import java.util.stream.Collectors;
 @Slf4j
 public class QuizService {
 
-    private final RestTemplate restTemplate;
+    private final QuestionServiceClient questionServiceClient;
     private final QuizDao quizDao;
     private final QuizSubmissionRepository submissionRepository;
-    private final ObjectMapper objectMapper;
-
-    private static final String QUESTION_SERVICE_BASE_URL = "http://localhost:8081/question";
-    private static final String GENERATE_PATH = "/generate";
-    private static final String GET_QUESTIONS_PATH = "/getQuestions";
+    private final QuestionCache questionCache;
+    private final AnswerKeyService answerKeyService;
+    private final CompiledAnswerKeyCache compiledAnswerKeys;
+    private final ExamSessionCache examSessionCache;
+    private final QuizLifecycleScheduler lifecycleScheduler;
+    private final AvailableQuizCache availableQuizCache;
+    private final ResultAggregateService resultAggregateService;
+    private final SubmissionWriter submissionWriter;
+    private final ObjectProvider<SubmissionIngestBuffer> ingestBufferProvider;
+    private final ObjectProvider<GradingQueue> gradingQueueProvider;
+    private final RegradeService regradeService;
+    private final QuestionIdStorage questionIdStorage;
+    private final QuizAttemptService attemptService;
+    private final AnswerDraftBuffer answerDraftBuffer;
+    private final SubmissionDeduplicator submissionDeduplicator;
+    private final boolean regradeOnQuestionChange;
+
+    private static final int MAX_RESULTS_PAGE_SIZE = 500;
+    private static final List<String> ALL_STATUSES = List.of("PUBLISHED", "ACTIVE", "ENDED");
+    private static final int AGGREGATE_BUCKET_WIDTH = 100 / QuizResultAggregate.HISTOGRAM_BUCKETS;
 
     @Autowired
-    public QuizService(RestTemplate restTemplate, QuizDao quizDao, QuizSubmissionRepository submissionRepository, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
+    public QuizService(QuestionServiceClient questionServiceClient, QuizDao quizDao, QuizSubmissionRepository submissionRepository,
+                       QuestionCache questionCache, AnswerKeyService answerKeyService, CompiledAnswerKeyCache compiledAnswerKeys,
+                       ExamSessionCache examSessionCache, QuizLifecycleScheduler lifecycleScheduler,
+                       AvailableQuizCache availableQuizCache,
+                       ResultAggregateService resultAggregateService, SubmissionWriter submissionWriter,
+                       ObjectProvider<SubmissionIngestBuffer> ingestBufferProvider,
+                       ObjectProvider<GradingQueue> gradingQueueProvider,
+                       RegradeService regradeService, QuestionIdStorage questionIdStorage, QuizAttemptService attemptService,
+                       AnswerDraftBuffer answerDraftBuffer, SubmissionDeduplicator submissionDeduplicator,
+                       @Value("${quiz.regrade.on-question-change:true}") boolean regradeOnQuestionChange) {
+        this.questionServiceClient = questionServiceClient;
         this.quizDao = quizDao;
         this.submissionRepository = submissionRepository;
-        this.objectMapper = objectMapper;
+        this.questionCache = questionCache;
+        this.answerKeyService = answerKeyService;
+        this.compiledAnswerKeys = compiledAnswerKeys;
+        this.examSessionCache = examSessionCache;
+        this.lifecycleScheduler = lifecycleScheduler;
+        this.availableQuizCache = availableQuizCache;
+        this.resultAggregateService = resultAggregateService;
+        this.submissionWriter = submissionWriter;
+        this.ingestBufferProvider = ingestBufferProvider;
+        this.gradingQueueProvider = gradingQueueProvider;
+        this.regradeService = regradeService;
+        this.questionIdStorage = questionIdStorage;
+        this.attemptService = attemptService;
+        this.answerDraftBuffer = answerDraftBuffer;
+        this.submissionDeduplicator = submissionDeduplicator;
+        this.regradeOnQuestionChange = regradeOnQuestionChange;
     }
 
     public ResponseEntity<String> createQuiz(String category, int numQ, String title) {
         log.info("Request to create quiz: category={}, numQ={}, title={}", category, numQ, title);
         if (numQ <= 0) return new ResponseEntity<>("Num questions positive.", HttpStatus.BAD_REQUEST);
-        String generateUrl = UriComponentsBuilder.fromHttpUrl(QUESTION_SERVICE_BASE_URL + GENERATE_PATH)
-                .queryParam("numQuestions", numQ).queryParam("categoryName", category).toUriString();
-        ResponseEntity<List<Integer>> generateResponseEntity;
+        List<Integer> questionIds;
         try {
-            generateResponseEntity = restTemplate.exchange(generateUrl, HttpMethod.POST, null, new ParameterizedTypeReference<>() {});
-        } catch (Exception e) {
-            log.error("Error from Question Service for URL {}: {}", generateUrl, e.getMessage());
-            return new ResponseEntity<>("Error generating questions.", HttpStatus.INTERNAL_SERVER_ERROR);
+            questionIds = questionServiceClient.generateQuestionIds(category, numQ);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getReason(), e.getStatusCode());
         }
-        if (!generateResponseEntity.getStatusCode().is2xxSuccessful() || generateResponseEntity.getBody() == null) {
-            return new ResponseEntity<>("Invalid response from Question Service.", HttpStatus.BAD_GATEWAY);
-        }
-        List<Integer> questionIds = generateResponseEntity.getBody();
         if (questionIds.isEmpty()) return new ResponseEntity<>("No questions for category.", HttpStatus.NOT_FOUND);
 
         Quiz quiz = new Quiz();
         quiz.setTitle(title);
-        quiz.setQuestionIds(questionIds);
+        questionIdStorage.assign(quiz, questionIds);
         quiz.setStatus("PUBLISHED");
         quiz.setDurationMinutes(60);
         quiz.setPassingScore(50);
+        quiz.setStatus(determineCurrentStatus(quiz, LocalDateTime.now()));
         try {
             Quiz savedQuiz = quizDao.save(quiz);
+            answerKeyService.snapshot(savedQuiz);
+            lifecycleScheduler.schedule(savedQuiz);
+            availableQuizCache.invalidateAll();
             return new ResponseEntity<>("Quiz '" + title + "' created. ID: " + savedQuiz.getId(), HttpStatus.CREATED);
         } catch (Exception e) {
             log.error("Error saving quiz '{}'", title, e);
@@ -102,7 +138,7 @@ public class QuizService {
         Quiz quiz = new Quiz();
         quiz.setTitle(quizDto.getTitle());
         quiz.setDescription(quizDto.getDescription());
-        quiz.setQuestionIds(quizDto.getQuestionIds());
+        questionIdStorage.assign(quiz, quizDto.getQuestionIds());
         quiz.setDurationMinutes(quizDto.getDurationMinutes());
         quiz.setStartDate(quizDto.getStartDate());
         quiz.setEndDate(quizDto.getEndDate());
@@ -113,8 +149,13 @@ public class QuizService {
             log.warn("Published quiz '{}' has no start date. It will be considered active immediately if no end date or end date is in future.", quiz.getTitle());
         }
 
+        quiz.setStatus(determineCurrentStatus(quiz, LocalDateTime.now()));
+
         try {
             Quiz savedQuiz = quizDao.save(quiz);
+            answerKeyService.snapshot(savedQuiz);
+            lifecycleScheduler.schedule(savedQuiz);
+            availableQuizCache.invalidateAll();
             log.info("Quiz '{}' saved successfully with ID: {}", savedQuiz.getTitle(), savedQuiz.getId());
             return new ResponseEntity<>(savedQuiz, HttpStatus.CREATED);
         } catch (Exception e) {
@@ -123,26 +164,57 @@ public class QuizService {
         }
     }
 
-    public ResponseEntity<List<Quiz>> getAllQuizzesForInstructor() {
+    public ResponseEntity<List<QuizSummaryDto>> getAllQuizzesForInstructor() {
         log.info("Fetching all quizzes for instructor view.");
         try {
-            List<Quiz> quizzes = quizDao.findAll();
-            quizzes.sort((q1, q2) -> {
-                LocalDateTime d1 = q1.getStartDate() != null ? q1.getStartDate() : LocalDateTime.MIN;
-                LocalDateTime d2 = q2.getStartDate() != null ? q2.getStartDate() : LocalDateTime.MIN;
-                int dateCompare = d2.compareTo(d1);
-                if (dateCompare == 0) {
-                    return Integer.compare(q2.getId(), q1.getId());
-                }
-                return dateCompare;
-            });
-            return ResponseEntity.ok(quizzes);
+            // Newest start date first, quizzes without a start date last
+            return ResponseEntity.ok(quizDao.findAllSummaries());
         } catch (Exception e) {
             log.error("Error fetching all quizzes for instructor: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
         }
     }
 
+    /**
+     * One page of the instructor's quiz list, optionally limited to one status. The cursor is
+     * {@code <id>} or {@code <id>@<startDate>} of the last row of the previous page.
+     */
+    public ResponseEntity<QuizSummaryPageDto> getQuizSummaryPage(String status, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> statuses = status == null || status.isBlank()
+                ? ALL_STATUSES : List.of(status.trim().toUpperCase(Locale.ROOT));
+        int limit = Math.min(pageSize, MAX_RESULTS_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+
+        List<QuizSummaryDto> page;
+        if (cursor == null || cursor.isBlank()) {
+            page = quizDao.findSummaryPage(statuses, pageRequest);
+        } else {
+            int separator = cursor.indexOf('@');
+            try {
+                Integer afterId = Integer.valueOf(separator < 0 ? cursor : cursor.substring(0, separator));
+                page = separator < 0
+                        ? quizDao.findUndatedSummaryPageAfter(statuses, afterId, pageRequest)
+                        : quizDao.findSummaryPageAfter(statuses, LocalDateTime.parse(cursor.substring(separator + 1)), afterId, pageRequest);
+            } catch (RuntimeException e) {
+                log.warn("Invalid quiz page cursor '{}': {}", cursor, e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = page.subList(0, limit);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            QuizSummaryDto last = page.get(page.size() - 1);
+            nextCursor = last.getStartDate() == null ? String.valueOf(last.getId()) : last.getId() + "@" + last.getStartDate();
+        }
+        return ResponseEntity.ok(new QuizSummaryPageDto(page, nextCursor));
+    }
+
     public ResponseEntity<Quiz> getQuizDetailsById(Integer quizId) {
         log.info("Fetching quiz details for ID: {}", quizId);
         return quizDao.findById(quizId)
@@ -179,16 +251,26 @@ public class QuizService {
         existingQuiz.setEndDate(quizDto.getEndDate());
         existingQuiz.setPassingScore(quizDto.getPassingScore());
 
-        if (quizDto.getQuestionIds() != null && !quizDto.getQuestionIds().isEmpty()) {
-            existingQuiz.setQuestionIds(quizDto.getQuestionIds());
+        boolean questionsChanged = quizDto.getQuestionIds() != null && !quizDto.getQuestionIds().isEmpty();
+        if (questionsChanged) {
+            questionIdStorage.assign(existingQuiz, quizDto.getQuestionIds());
         }
         // Status can be updated e.g., from DRAFT to PUBLISHED.
         // if (quizDto.getStatus() != null) { // If status comes from DTO
         //    existingQuiz.setStatus(quizDto.getStatus());
         // }
 
+        // Dates may have moved, so the stored status is recomputed and the transitions rescheduled
+        existingQuiz.setStatus(determineCurrentStatus(existingQuiz, LocalDateTime.now()));
+
         try {
             Quiz updatedQuiz = quizDao.save(existingQuiz);
+            if (questionsChanged || updatedQuiz.getTotalPoints() == null) {
+                answerKeyService.snapshot(updatedQuiz);
+            }
+            examSessionCache.invalidate(quizId);
+            lifecycleScheduler.schedule(updatedQuiz);
+            availableQuizCache.invalidateAll();
             log.info("Quiz ID: {} updated successfully.", updatedQuiz.getId());
             return ResponseEntity.ok(updatedQuiz);
         } catch (Exception e) {
@@ -217,7 +299,12 @@ public class QuizService {
         // }
 
         try {
+            answerKeyService.deleteKeys(quizId);
+            resultAggregateService.delete(quizId);
             quizDao.deleteById(quizId);
+            examSessionCache.invalidate(quizId);
+            lifecycleScheduler.cancel(quizId);
+            availableQuizCache.invalidateAll();
             log.info("Quiz ID: {} deleted successfully.", quizId);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
@@ -226,59 +313,132 @@ public class QuizService {
         }
     }
 
-    public ResponseEntity<Object> getQuizResults(Integer quizId) {
-        log.info("Fetching results for quiz ID: {}", quizId);
+    public ResponseEntity<DetailedExamResultsDto> getQuizResults(Integer quizId, int bucketWidth, Long afterSubmissionId, int pageSize) {
+        log.info("Fetching results for quiz ID: {} (bucketWidth={}, afterSubmissionId={}, pageSize={})",
+                quizId, bucketWidth, afterSubmissionId, pageSize);
+        if (bucketWidth <= 0 || bucketWidth > 100 || pageSize <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
         Optional<Quiz> quizOpt = quizDao.findById(quizId);
         if (quizOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         Quiz quiz = quizOpt.get();
 
-        List<QuizSubmission> submissions = submissionRepository.findByQuizId(quizId);
-
-        Map<String, Object> results = new HashMap<>();
-        results.put("quizId", quiz.getId());
-        results.put("quizTitle", quiz.getTitle());
-        results.put("totalParticipants", submissions.size());
-        results.put("passingScore", quiz.getPassingScore());
-
-        if (!submissions.isEmpty()) {
-            double averageScorePercentage = submissions.stream()
-                    .filter(s -> s.getAchievedPoints() != null && s.getTotalPossiblePoints() != null && s.getTotalPossiblePoints() > 0)
-                    .mapToDouble(s -> (double) s.getAchievedPoints() * 100.0 / s.getTotalPossiblePoints())
-                    .average()
-                    .orElse(0.0);
-            results.put("averageScorePercentage", Math.round(averageScorePercentage * 10.0) / 10.0);
-
-            long passedCount = submissions.stream().filter(s -> "PASSED".equalsIgnoreCase(s.getStudentStatus()) ||
-                    (s.getAchievedPoints() != null && quiz.getPassingScore() != null && s.getTotalPossiblePoints() != null && s.getTotalPossiblePoints() > 0 &&
-                            (s.getAchievedPoints() * 100.0 / s.getTotalPossiblePoints()) >= quiz.getPassingScore() )).count();
-            long failedCount = submissions.size() - passedCount;
-
-            results.put("scoreDistribution", List.of(
-                    Map.of("label", "Passed", "value", passedCount),
-                    Map.of("label", "Failed", "value", failedCount)
-            ));
-
-            List<Map<String, Object>> studentResults = submissions.stream().map(s -> {
-                Map<String, Object> sr = new HashMap<>();
-                sr.put("userId", s.getUserId());
-                sr.put("score", s.getAchievedPoints());
-                sr.put("total", s.getTotalPossiblePoints());
-                sr.put("status", s.getStudentStatus());
-                return sr;
-            }).collect(Collectors.toList());
-            results.put("studentResults", studentResults);
-        } else {
-            results.put("averageScorePercentage", 0.0);
-            results.put("scoreDistribution", Collections.emptyList());
-            results.put("studentResults", Collections.emptyList());
-        }
+        DetailedExamResultsDto results = new DetailedExamResultsDto();
+        results.setQuizId(quiz.getId());
+        results.setQuizTitle(quiz.getTitle());
+        results.setPassingScore(quiz.getPassingScore());
+
+        QuizResultAggregate aggregate = resultAggregateService.getOrRebuild(quiz);
+        int participants = (int) aggregate.getParticipantCount();
+        results.setTotalParticipants(participants);
+
+        if (participants == 0) {
+            results.setAverageScorePercentage(0.0);
+            results.setPassedCount(0);
+            results.setFailedCount(0);
+            results.setScoreDistribution(Collections.emptyList());
+            results.setStudentResults(Collections.emptyList());
+            return ResponseEntity.ok(results);
+        }
+
+        long scored = aggregate.getScoredCount();
+        double averageScorePercentage = scored > 0 ? aggregate.getPercentageSum() / scored : 0.0;
+        results.setAverageScorePercentage(Math.round(averageScorePercentage * 10.0) / 10.0);
+        if (scored > 0) {
+            double meanPoints = (double) aggregate.getPointsSum() / scored;
+            double variance = Math.max(0.0, (double) aggregate.getPointsSquareSum() / scored - meanPoints * meanPoints);
+            results.setAveragePoints(Math.round(meanPoints * 10.0) / 10.0);
+            results.setPointsStandardDeviation(Math.round(Math.sqrt(variance) * 10.0) / 10.0);
+        }
+        results.setPassedCount((int) aggregate.getPassedCount());
+        results.setFailedCount((int) aggregate.getFailedCount());
+        results.setScoreDistribution(bucketWidth == AGGREGATE_BUCKET_WIDTH
+                ? scoreDistributionFromAggregate(aggregate)
+                : buildScoreDistribution(quizId, bucketWidth));
+
+        int limit = Math.min(pageSize, MAX_RESULTS_PAGE_SIZE);
+        List<StudentSubmissionResultDto> page = submissionRepository.findResultPage(
+                quizId, afterSubmissionId != null ? afterSubmissionId : 0L, PageRequest.of(0, limit + 1));
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = page.subList(0, limit);
+        }
+        results.setStudentResults(page);
+        results.setNextCursor(hasMore ? page.get(page.size() - 1).getSubmissionId() : null);
         return ResponseEntity.ok(results);
     }
 
-    public ResponseEntity<QuizSessionDto> getQuizQuestions(Integer quizId) {
-        log.info("Fetching quiz session data for quiz ID: {}", quizId);
+    private List<ScoreDistributionItemDto> scoreDistributionFromAggregate(QuizResultAggregate aggregate) {
+        int[] counts = aggregate.getHistogram() != null ? aggregate.getHistogram() : new int[QuizResultAggregate.HISTOGRAM_BUCKETS];
+        List<ScoreDistributionItemDto> distribution = new ArrayList<>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            int lower = bucket * AGGREGATE_BUCKET_WIDTH;
+            distribution.add(new ScoreDistributionItemDto(lower + "-" + (lower + AGGREGATE_BUCKET_WIDTH) + "%", counts[bucket]));
+        }
+        return distribution;
+    }
+
+    // Histograms with a custom bucket width are computed by the database.
+    private List<ScoreDistributionItemDto> buildScoreDistribution(Integer quizId, int bucketWidth) {
+        int bucketCount = (100 + bucketWidth - 1) / bucketWidth;
+        int[] counts = new int[bucketCount];
+        for (ScoreBucketCount row : submissionRepository.getScoreHistogram(quizId, bucketWidth, bucketCount - 1)) {
+            counts[row.getBucket().intValue()] = row.getSubmissionCount().intValue();
+        }
+        List<ScoreDistributionItemDto> distribution = new ArrayList<>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int lower = bucket * bucketWidth;
+            int upper = Math.min(lower + bucketWidth, 100);
+            distribution.add(new ScoreDistributionItemDto(lower + "-" + upper + "%", counts[bucket]));
+        }
+        return distribution;
+    }
+
+    public boolean quizExists(Integer quizId) {
+        return quizDao.existsById(quizId);
+    }
+
+    public ResponseEntity<Void> rebuildResultAggregate(Integer quizId) {
+        log.info("Request to rebuild result aggregate for quiz ID: {}", quizId);
+        Optional<Quiz> quizOpt = quizDao.findById(quizId);
+        if (quizOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        resultAggregateService.rebuild(quizOpt.get());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Session payload for students taking the quiz, served from {@link ExamSessionCache} as
+     * pre-serialized JSON. Returns 304 when {@code ifNoneMatch} matches the current ETag.
+     */
+    public ResponseEntity<byte[]> getQuizQuestions(Integer quizId, String ifNoneMatch) {
+        ExamSessionCache.SessionPayload payload = examSessionCache.get(quizId, this::buildQuizSession);
+        if (payload.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(payload.body());
+    }
+
+    /** Loads the session payload and compiled answer key of the quiz into their caches ahead of its start. */
+    public void warmQuiz(Quiz quiz) {
+        try {
+            examSessionCache.get(quiz.getId(), this::buildQuizSession);
+            compiledAnswerKeys.get(quiz, answerKeyService::getOrCreateKeys);
+            log.info("Caches warmed for quiz ID {}.", quiz.getId());
+        } catch (Exception e) {
+            log.warn("Could not warm caches for quiz ID {}: {}", quiz.getId(), e.getMessage());
+        }
+    }
+
+    private QuizSessionDto buildQuizSession(Integer quizId) {
+        log.info("Building quiz session data for quiz ID: {}", quizId);
         Quiz quiz = quizDao.findById(quizId).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz not found with ID: " + quizId));
         if (quiz.getQuestionIds() == null || quiz.getQuestionIds().isEmpty()) {
@@ -292,34 +452,20 @@ public class QuizService {
             log.error("Could not fetch any question details for quiz ID {} even though question IDs exist.", quizId);
             throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY, "Could not retrieve question details for the exam.");
         }
-        QuizSessionDto sessionDto = new QuizSessionDto(quiz.getId(), quiz.getTitle(), quiz.getDurationMinutes(), questions);
-        return ResponseEntity.ok(sessionDto);
+        // Copies without the right answer; the cached QuestionWrapper objects stay untouched
+        List<QuestionWrapper> studentQuestions = questions.stream()
+                .map(q -> new QuestionWrapper(q.getOption4(), q.getOption3(), q.getOption2(), q.getPoints(),
+                        q.getOption1(), q.getQuestiontitle(), q.getId(), q.getType(), null))
+                .collect(Collectors.toList());
+        return new QuizSessionDto(quiz.getId(), quiz.getTitle(), quiz.getDurationMinutes(), studentQuestions);
     }
 
     public ResponseEntity<List<QuizInfoDto>> getAvailableQuizzesForStudent(Long userId) {
         log.info("Fetching available quizzes for student ID: {}", userId);
         if (userId == null) return ResponseEntity.badRequest().build();
         try {
-            List<String> statuses = Arrays.asList("PUBLISHED", "ACTIVE");
-            List<Quiz> candidateQuizzes = quizDao.findByStatusIn(statuses);
-            LocalDateTime now = LocalDateTime.now();
-            Set<Integer> submittedQuizIds = submissionRepository.findByUserIdOrderBySubmissionDateDesc(userId)
-                    .stream().map(QuizSubmission::getQuizId).collect(Collectors.toSet());
-
-            List<QuizInfoDto> dtos = candidateQuizzes.stream()
-                    .filter(quiz -> !submittedQuizIds.contains(quiz.getId()))
-                    .map(quiz -> {
-                        String dynamicStatus = determineCurrentStatus(quiz, now);
-                        if ("ACTIVE".equals(dynamicStatus) || "PUBLISHED".equals(dynamicStatus)) {
-                            return new QuizInfoDto(
-                                    quiz.getId(), quiz.getTitle(), dynamicStatus,
-                                    quiz.getDurationMinutes(), quiz.getStartDate(), quiz.getEndDate(),
-                                    quiz.getPassingScore());
-                        }
-                        return null;
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+            List<QuizInfoDto> dtos = availableQuizCache.get(userId, id ->
+                    quizDao.findAvailableForUser(id, Arrays.asList("PUBLISHED", "ACTIVE"), LocalDateTime.now()));
             log.info("Returning {} available quizzes for student {}.", dtos.size(), userId);
             return ResponseEntity.ok(dtos);
         } catch (Exception e) {
@@ -328,86 +474,165 @@ public class QuizService {
         }
     }
 
-    @Transactional
+    // Not transactional: the insert runs in SubmissionWriter, so no connection is held while grading or queueing.
     public ResponseEntity<QuizSubmission> calculateResult(Integer quizId, Long userId, List<Response> responses) {
         log.info("Calculating score and saving submission for Quiz ID: {}, User ID: {}", quizId, userId);
         if (responses == null) { // Boş listeye izin ver (kullanıcı hiçbir şeyi işaretlemeyebilir)
             log.warn("Received null responses for quiz ID: {}, User ID: {}. Not saving submission.", quizId, userId);
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+        // Retries get the original result instead of a second grading
+        return submissionDeduplicator.once(quizId, userId, () -> submitOnce(quizId, userId, responses));
+    }
 
-        Quiz quiz = quizDao.findById(quizId).orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz not found with ID: " + quizId));
-        List<Integer> questionIds = Optional.ofNullable(quiz.getQuestionIds()).orElse(Collections.emptyList());
-        if (questionIds.isEmpty()) {
-            log.error("Quiz ID {} has no questions associated.", quizId);
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    private ResponseEntity<QuizSubmission> submitOnce(Integer quizId, Long userId, List<Response> responses) {
+        Optional<QuizSubmission> existing = findSubmission(quizId, userId);
+        if (existing.isPresent()) {
+            submissionDeduplicator.recordDatabaseDuplicate();
+            log.info("Quiz ID: {} was already submitted by User ID: {}. Returning submission ID {}.", quizId, userId, existing.get().getId());
+            return ResponseEntity.ok(existing.get());
+        }
+        QuizAttemptService.SubmitClaim claim = attemptService.claimSubmit(quizId, userId);
+        if (claim != QuizAttemptService.SubmitClaim.CLAIMED) {
+            log.warn("Rejected submission for Quiz ID: {}, User ID: {}: {}.", quizId, userId, claim);
+            return new ResponseEntity<>(rejectionStatus(claim));
         }
+        ResponseEntity<QuizSubmission> result = null;
+        try {
+            result = gradeAndSave(quizId, userId, responses);
+            return result;
+        } finally {
+            if (result == null || !result.getStatusCode().is2xxSuccessful()) {
+                attemptService.reopenSubmit(quizId, userId);
+            }
+        }
+    }
 
-        List<QuestionWrapper> questionsWithData = fetchQuestionsData(questionIds);
-        Map<Integer, QuestionWrapper> questionMap = questionsWithData.stream()
-                .collect(Collectors.toMap(QuestionWrapper::getId, Function.identity()));
+    private static HttpStatus rejectionStatus(QuizAttemptService.SubmitClaim claim) {
+        return switch (claim) {
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case NOT_ACTIVE -> HttpStatus.FORBIDDEN;
+            default -> HttpStatus.CONFLICT; // Attempt already submitted or expired
+        };
+    }
 
-        int achievedPoints = 0;
-        int totalPossiblePoints = 0;
-        Map<Integer, String> submittedAnswersMap = new HashMap<>();
-        for (Response response : responses) {
-            if (response != null && response.getId() != null && response.getResponse() != null) {
-                submittedAnswersMap.put(response.getId(), response.getResponse());
-            } else { log.warn("Skipping invalid response object: {}", response); }
-        }
+    /** True with quiz.submission.ingest-mode=async: submissions are queued and graded in the background. */
+    public boolean isAsyncGrading() {
+        return gradingQueueProvider.getIfAvailable() != null;
+    }
 
-        for (Integer qIdFromQuiz : questionIds) { // Sınavdaki tüm soruları döngüye al
-            QuestionWrapper question = questionMap.get(qIdFromQuiz);
-            if (question == null) {
-                log.warn("Question data not found for ID {} listed in quiz {}. Skipping this question for scoring.", qIdFromQuiz, quizId);
-                continue; // Bu soruyu atla
-            }
-            Integer points = Optional.ofNullable(question.getPoints()).orElse(0);
-            totalPossiblePoints += points; // Her zaman toplam puana ekle
+    // Async ingest mode: checks the submission, stores it in the grading outbox and answers 202 with a handle to poll.
+    public ResponseEntity<GradingStatusDto> enqueueForGrading(Integer quizId, Long userId, List<Response> responses) {
+        GradingQueue gradingQueue = gradingQueueProvider.getObject();
+        if (responses == null || userId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return submissionDeduplicator.once(quizId, userId, () -> enqueueOnce(gradingQueue, quizId, userId, responses));
+    }
 
-            String userAnswer = submittedAnswersMap.get(qIdFromQuiz);
-            String correctAnswer = question.getRightanswer();
-            if (userAnswer != null && correctAnswer != null &&
-                    correctAnswer.trim().equalsIgnoreCase(userAnswer.trim())) {
-                achievedPoints += points;
+    private ResponseEntity<GradingStatusDto> enqueueOnce(GradingQueue gradingQueue, Integer quizId, Long userId, List<Response> responses) {
+        Optional<GradingStatusDto> existing = gradingQueue.findExisting(quizId, userId);
+        if (existing.isPresent()) {
+            submissionDeduplicator.recordDatabaseDuplicate();
+            return "DONE".equals(existing.get().getStatus())
+                    ? ResponseEntity.ok(existing.get())
+                    : ResponseEntity.accepted().body(existing.get());
+        }
+        if (!quizDao.existsById(quizId)) {
+            return ResponseEntity.notFound().build();
+        }
+        QuizAttemptService.SubmitClaim claim = attemptService.claimSubmit(quizId, userId);
+        if (claim != QuizAttemptService.SubmitClaim.CLAIMED) {
+            log.warn("Rejected submission for Quiz ID: {}, User ID: {}: {}.", quizId, userId, claim);
+            return new ResponseEntity<>(rejectionStatus(claim));
+        }
+        boolean queued = false;
+        try {
+            GradingStatusDto status = gradingQueue.enqueue(quizId, userId, answerDraftBuffer.merge(quizId, userId, responses));
+            queued = true;
+            answerDraftBuffer.discard(quizId, userId); // The outbox row now holds the merged answers
+            return ResponseEntity.accepted()
+                    .location(URI.create("/quiz/grading/" + status.getTaskId() + "?userId=" + userId))
+                    .body(status);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
+        } catch (Exception e) {
+            log.error("Error queueing submission for Quiz ID: {}, User ID: {}", quizId, userId, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            if (!queued) {
+                attemptService.reopenSubmit(quizId, userId);
             }
         }
+    }
 
+    public ResponseEntity<GradingStatusDto> getGradingStatus(Long taskId, Long userId) {
+        GradingQueue gradingQueue = gradingQueueProvider.getIfAvailable();
+        if (gradingQueue == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.of(gradingQueue.status(taskId, userId));
+    }
 
-        String submittedAnswersJsonString;
-        try {
-            submittedAnswersJsonString = objectMapper.writeValueAsString(submittedAnswersMap);
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing submitted answers for Quiz ID: {}, User ID: {}", quizId, userId, e);
+    // Grades the responses, together with any autosaved ones, and stores the submission.
+    // Also used by QuizAttemptService for expired attempts.
+    ResponseEntity<QuizSubmission> gradeAndSave(Integer quizId, Long userId, List<Response> submittedResponses) {
+        List<Response> responses = answerDraftBuffer.merge(quizId, userId, submittedResponses);
+        Quiz quiz = quizDao.findById(quizId).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz not found with ID: " + quizId));
+        List<Integer> questionIds = Optional.ofNullable(quiz.getQuestionIds()).orElse(Collections.emptyList());
+        if (questionIds.isEmpty()) {
+            log.error("Quiz ID {} has no questions associated.", quizId);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        String studentStatus = "COMPLETED"; // Başlangıç durumu
+        CompiledAnswerKey answerKey = compiledAnswerKeys.get(quiz, answerKeyService::getOrCreateKeys);
+
+        int achievedPoints = answerKey.score(responses);
+        int totalPossiblePoints = answerKey.totalPoints();
+        byte[] encodedAnswers = SubmittedAnswersCodec.encode(responses);
+
         Integer passingScore = quiz.getPassingScore();
-        if (passingScore != null && totalPossiblePoints > 0) {
-            double scorePercentage = ((double) achievedPoints * 100.0) / totalPossiblePoints;
-            studentStatus = (scorePercentage >= passingScore) ? "PASSED" : "FAILED";
-        }
+        String studentStatus = CompiledAnswerKey.studentStatus(achievedPoints, totalPossiblePoints, passingScore);
 
 
         QuizSubmission submission = new QuizSubmission(
                 null, quizId, userId, achievedPoints, totalPossiblePoints,
-                LocalDateTime.now(), submittedAnswersJsonString,
-                studentStatus // Hesaplanan durumu ata
+                LocalDateTime.now(), null,
+                studentStatus, // Hesaplanan durumu ata
+                encodedAnswers
         );
 
         try {
-            QuizSubmission savedSubmission = submissionRepository.save(submission);
+            SubmissionIngestBuffer ingestBuffer = ingestBufferProvider.getIfAvailable();
+            QuizSubmission savedSubmission = ingestBuffer != null
+                    ? ingestBuffer.submit(submission, passingScore)
+                    : submissionWriter.persist(submission, passingScore);
+            availableQuizCache.invalidate(userId);
+            answerDraftBuffer.discard(quizId, userId);
             log.info("Quiz submission saved. ID: {}, Quiz ID: {}, User ID: {}, Score: {}/{}, Student Status: {}",
                     savedSubmission.getId(), quizId, userId, achievedPoints, totalPossiblePoints, studentStatus);
             return new ResponseEntity<>(savedSubmission, HttpStatus.OK);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
         } catch (Exception e) {
+            // Stored meanwhile by another instance or path: the unique (user_id, quiz_id) index rejected this one
+            Optional<QuizSubmission> existing = findSubmission(quizId, userId);
+            if (existing.isPresent()) {
+                submissionDeduplicator.recordDatabaseDuplicate();
+                answerDraftBuffer.discard(quizId, userId);
+                log.info("Quiz ID: {} was already submitted by User ID: {}. Returning submission ID {}.", quizId, userId, existing.get().getId());
+                return ResponseEntity.ok(existing.get());
+            }
             log.error("Error saving quiz submission for Quiz ID: {}, User ID: {}", quizId, userId, e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    private Optional<QuizSubmission> findSubmission(Integer quizId, Long userId) {
+        return submissionRepository.findFirstByUserIdAndQuizIdOrderByIdAsc(userId, quizId);
+    }
+
     public ResponseEntity<List<QuizInfoDto>> getExamHistory(Long userId) {
         log.info("Fetching exam history for User ID: {}", userId);
         if (userId == null) {
@@ -415,7 +640,6 @@ public class QuizService {
             return ResponseEntity.badRequest().build();
         }
         try {
-            LocalDateTime now = LocalDateTime.now();
             List<QuizInfoDto> historyDtos = new ArrayList<>();
 
             List<QuizSubmission> submissions = submissionRepository.findByUserIdOrderBySubmissionDateDesc(userId);
@@ -455,17 +679,12 @@ public class QuizService {
                 }
             }
 
-            List<String> relevantStatuses = Arrays.asList("PUBLISHED", "ACTIVE", "ENDED");
-            List<Quiz> allPotentiallyRelevantQuizzes = quizDao.findByStatusIn(relevantStatuses);
-
-            for (Quiz quiz : allPotentiallyRelevantQuizzes) {
-                String dynamicStatus = determineCurrentStatus(quiz, now);
-
-                if ("ENDED".equals(dynamicStatus) && !submittedQuizIds.contains(quiz.getId())) {
-                    int quizTotalPoints = 0;
-                    if (quiz.getQuestionIds() != null && !quiz.getQuestionIds().isEmpty()) {
-                        List<QuestionWrapper> questions = fetchQuestionsData(quiz.getQuestionIds());
-                        quizTotalPoints = questions.stream().mapToInt(q -> q.getPoints() != null ? q.getPoints() : 0).sum();
+            // Status is persisted by QuizLifecycleScheduler, so ended quizzes come from an indexed lookup
+            for (Quiz quiz : quizDao.findByStatus("ENDED")) {
+                if (!submittedQuizIds.contains(quiz.getId())) {
+                    Integer quizTotalPoints = quiz.getTotalPoints();
+                    if (quizTotalPoints == null) {
+                        quizTotalPoints = answerKeyService.getOrCreateKeys(quiz).stream().mapToInt(QuizQuestionKey::getPoints).sum();
                     }
                     QuizInfoDto unattemptedDto = new QuizInfoDto(quiz, "NOT_ATTEMPTED");
                     unattemptedDto.setTotalPoints(quizTotalPoints);
@@ -501,18 +720,15 @@ public class QuizService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Associated quiz data missing"));
 
         List<QuestionWrapper> questionsWithData = fetchQuestionsData(quiz.getQuestionIds());
-        Map<Integer, String> userAnswersMap;
+        SubmittedAnswers userAnswers;
         try {
-            userAnswersMap = (submission.getSubmittedAnswersJson() != null && !submission.getSubmittedAnswersJson().isEmpty())
-                    ? objectMapper.readValue(submission.getSubmittedAnswersJson(), new TypeReference<Map<Integer, String>>() {})
-                    : Collections.emptyMap();
-        } catch (JsonProcessingException e) {
+            userAnswers = SubmittedAnswersCodec.read(submission);
+        } catch (IOException | IllegalArgumentException e) {
             log.error("Error deserializing answers for submission ID {}: {}", submissionId, e.getMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
-
         List<QuestionReviewDetailDto> questionDetails = questionsWithData.stream().map(question -> {
-            String userAnswer = userAnswersMap.getOrDefault(question.getId(), "");
+            String userAnswer = Optional.ofNullable(userAnswers.answer(question.getId())).orElse("");
             String correctAnswer = question.getRightanswer();
             boolean isCorrect = correctAnswer != null && correctAnswer.trim().equalsIgnoreCase(userAnswer.trim());
             List<String> options = null;
@@ -531,30 +747,27 @@ public class QuizService {
         return ResponseEntity.ok(reviewDto);
     }
 
+    public void invalidateCachedQuestions(List<Integer> questionIds) {
+        examSessionCache.invalidateAll(); // Sessions embed question data
+        if (questionIds == null || questionIds.isEmpty()) {
+            questionCache.invalidateAll();
+        } else {
+            questionCache.invalidate(questionIds);
+            if (regradeOnQuestionChange) {
+                regradeService.start(questionIds, false);
+            }
+        }
+    }
+
     private List<QuestionWrapper> fetchQuestionsData(List<Integer> questionIds) {
         if (questionIds == null || questionIds.isEmpty()) {
             log.warn("fetchQuestionsData called with empty or null questionIds list.");
             return new ArrayList<>();
         }
-        String getQuestionsUrl = QUESTION_SERVICE_BASE_URL + GET_QUESTIONS_PATH;
-        try {
-            ResponseEntity<List<QuestionWrapper>> response = restTemplate.exchange(
-                    getQuestionsUrl, HttpMethod.POST, new HttpEntity<>(questionIds),
-                    new ParameterizedTypeReference<List<QuestionWrapper>>() {});
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                response.getBody().forEach(q -> { if (q.getPoints() == null) q.setPoints(0); });
-                return response.getBody();
-            } else {
-                log.error("Failed to fetch questions data. Status: {}", response.getStatusCode());
-                throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY, "Could not fetch question details");
-            }
-        } catch (Exception e) {
-            log.error("Error during fetchQuestionsData for IDs {}: {}", questionIds, e.getMessage(), e);
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Error communicating with Question Service", e);
-        }
+        return questionCache.getAll(questionIds, questionServiceClient::getQuestions);
     }
 
-    private String determineCurrentStatus(Quiz quiz, LocalDateTime now) {
+    static String determineCurrentStatus(Quiz quiz, LocalDateTime now) {
         String instructorSetStatus = quiz.getStatus();
         if ("ENDED".equalsIgnoreCase(instructorSetStatus)) { return "ENDED"; }
         boolean hasEndedByTime = quiz.getEndDate() != null && now.isAfter(quiz.getEndDate());
@@ -0,0 +1,361 @@
+package quiz_service.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import quiz_service.client.QuestionServiceClient;
+import quiz_service.dao.QuizDao;
+import quiz_service.dao.QuizQuestionKeyRepository;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-grades stored submissions after question data changed. For every quiz that uses one of
+ * the changed questions a job rebuilds the answer key, reads the quiz's submissions in keyset
+ * chunks, scores each chunk in parallel and writes the changed rows back with one JDBC batch per
+ * chunk; only one chunk is held in memory at a time. The new key and the rebuilt result
+ * aggregate are stored together in one transaction at the end. If a job stops before that, the
+ * aggregate is rebuilt from the rows already written and the old key stays, so the quiz is
+ * picked up again by the next job.
+ * <p>
+ * Change notifications from question-service are best effort, so every
+ * {@code quiz.regrade.reconcile-minutes} a reconcile job compares the stored key of every quiz
+ * with fresh question data and re-grades the quizzes whose key is out of date.
+ * Jobs run one after another on the {@code regradeExecutor}.
+ */
+@Service
+@Slf4j
+public class RegradeService {
+
+    private static final String UPDATE_SQL =
+            "UPDATE quiz_submission SET achieved_points = ?, total_possible_points = ?, student_status = ? WHERE id = ?";
+
+    private final QuizDao quizDao;
+    private final QuizQuestionKeyRepository keyRepository;
+    private final QuizSubmissionRepository submissionRepository;
+    private final AnswerKeyService answerKeyService;
+    private final QuestionCache questionCache;
+    private final QuestionServiceClient questionServiceClient;
+    private final ResultAggregateService resultAggregateService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor jobExecutor;
+    private final ForkJoinPool gradingPool;
+    private final ScheduledExecutorService reconciler;
+    private final int chunkSize;
+    private final int diffLimit;
+    private final int retainedJobs;
+    private final Map<String, RegradeJob> jobs = new ConcurrentHashMap<>();
+
+    public RegradeService(QuizDao quizDao, QuizQuestionKeyRepository keyRepository, QuizSubmissionRepository submissionRepository,
+                          AnswerKeyService answerKeyService, QuestionCache questionCache, QuestionServiceClient questionServiceClient,
+                          ResultAggregateService resultAggregateService, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Qualifier("regradeExecutor") AsyncTaskExecutor jobExecutor,
+                          @Value("${quiz.regrade.chunk-size:1000}") int chunkSize,
+                          @Value("${quiz.regrade.parallelism:4}") int parallelism,
+                          @Value("${quiz.regrade.diff-limit:1000}") int diffLimit,
+                          @Value("${quiz.regrade.retained-jobs:50}") int retainedJobs,
+                          @Value("${quiz.regrade.reconcile-minutes:60}") long reconcileMinutes) {
+        this.quizDao = quizDao;
+        this.keyRepository = keyRepository;
+        this.submissionRepository = submissionRepository;
+        this.answerKeyService = answerKeyService;
+        this.questionCache = questionCache;
+        this.questionServiceClient = questionServiceClient;
+        this.resultAggregateService = resultAggregateService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobExecutor = jobExecutor;
+        this.gradingPool = new ForkJoinPool(Math.max(1, parallelism));
+        this.chunkSize = Math.max(1, chunkSize);
+        this.diffLimit = diffLimit;
+        this.retainedJobs = Math.max(1, retainedJobs);
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "regrade-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (reconcileMinutes > 0) {
+            this.reconciler.scheduleWithFixedDelay(this::reconcileSafely, reconcileMinutes, reconcileMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /** Queues a job for the quizzes that use any of the questions. */
+    public RegradeJobStatus start(Collection<Integer> questionIds, boolean dryRun) {
+        RegradeJob job = new RegradeJob(UUID.randomUUID().toString(), List.copyOf(questionIds), dryRun, false);
+        pruneFinishedJobs();
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> run(job));
+        log.info("Re-grade job {} queued for question IDs {} (dryRun={}).", job.id, questionIds, dryRun);
+        return job.toStatus();
+    }
+
+    /** Queues a job that checks the stored answer key of every quiz against fresh question data. */
+    public RegradeJobStatus reconcile() {
+        RegradeJob job = new RegradeJob(UUID.randomUUID().toString(), List.of(), false, true);
+        pruneFinishedJobs();
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> run(job));
+        log.info("Re-grade reconcile job {} queued.", job.id);
+        return job.toStatus();
+    }
+
+    public Optional<RegradeJobStatus> status(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(RegradeJob::toStatus);
+    }
+
+    /** Requests cancellation; the job stops after the chunk it is working on. */
+    public Optional<RegradeJobStatus> cancel(String jobId) {
+        RegradeJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        return Optional.of(job.toStatus());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+        jobs.values().forEach(job -> job.cancelled = true);
+        gradingPool.shutdown();
+    }
+
+    private void run(RegradeJob job) {
+        job.state = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        try {
+            questionCache.invalidate(job.questionIds);
+            List<Integer> quizIds = job.reconcile ? keyRepository.findAllQuizIds()
+                    : keyRepository.findQuizIdsByQuestionIds(job.questionIds);
+            job.quizzesTotal = quizIds.size();
+            for (Integer quizId : quizIds) {
+                if (job.cancelled) {
+                    break;
+                }
+                quizDao.findById(quizId).ifPresent(quiz -> regradeQuiz(job, quiz));
+                job.quizzesDone.incrementAndGet();
+            }
+            job.state = job.cancelled ? "CANCELLED" : "COMPLETED";
+        } catch (Exception e) {
+            log.error("Re-grade job {} failed", job.id, e);
+            job.state = "FAILED";
+            job.message = e.getMessage();
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            log.info("Re-grade job {} {}: {} submissions scanned, {} changed.",
+                    job.id, job.state, job.scanned.get(), job.changed.get());
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("Could not queue the re-grade reconcile job: {}", e.getMessage());
+        }
+    }
+
+    private void regradeQuiz(RegradeJob job, Quiz quiz) {
+        List<Integer> questionIds = quiz.getQuestionIds();
+        if (job.reconcile) {
+            questionCache.invalidate(questionIds); // Cached copies may predate a dropped change notification
+        }
+        List<QuestionWrapper> questions = questionCache.getAll(questionIds, questionServiceClient::getQuestions);
+        if (questions.size() != questionIds.size()) {
+            // A question was deleted or is unavailable: keep the stored key rather than dropping it
+            log.warn("Re-grade job {}: skipping quiz ID {}, only {} of {} questions available.",
+                    job.id, quiz.getId(), questions.size(), questionIds.size());
+            job.note("Skipped quiz " + quiz.getId() + ": questions missing.");
+            return;
+        }
+        List<QuizQuestionKey> storedKeys = answerKeyService.findKeys(quiz.getId());
+        List<QuizQuestionKey> newKeys = answerKeyService.buildKeys(quiz, questions);
+        if (sameGrading(storedKeys, newKeys) && quiz.getTotalPoints() != null) {
+            log.info("Re-grade job {}: answer key of quiz ID {} unchanged.", job.id, quiz.getId());
+            return;
+        }
+        CompiledAnswerKey key = CompiledAnswerKey.compile(newKeys);
+
+        // The key is swapped only after all submissions are scored against it: a job that is
+        // cancelled or fails leaves the old key, so the next job still sees the change and redoes the quiz.
+        boolean[] written = {false};
+        boolean swapped = false;
+        try {
+            Long lastId = rescoreSubmissions(job, quiz, key, 0L, true, written);
+            if (lastId == null || job.dryRun) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                answerKeyService.replaceKeys(quiz, newKeys);
+                rescoreSubmissions(job, quiz, key, lastId, false, written); // Stored while the others were scored
+                resultAggregateService.rebuild(quiz);
+            });
+            swapped = true;
+        } finally {
+            if (written[0] && !swapped) {
+                rebuildAggregate(job, quiz);
+            }
+        }
+    }
+
+    // Keeps the aggregate in line with rows already re-scored when the job stopped before the key swap.
+    private void rebuildAggregate(RegradeJob job, Quiz quiz) {
+        try {
+            resultAggregateService.rebuild(quiz);
+            job.note("Quiz " + quiz.getId() + " partly re-graded; it is redone by the next job.");
+        } catch (Exception e) {
+            log.error("Re-grade job {}: could not rebuild the result aggregate of quiz ID {}", job.id, quiz.getId(), e);
+        }
+    }
+
+    /**
+     * Scores the quiz's submissions after {@code afterId} in keyset chunks and writes the changed
+     * ones back, setting {@code written[0]} before the first write. Returns the last ID scanned,
+     * or null if the job was cancelled in between.
+     */
+    private Long rescoreSubmissions(RegradeJob job, Quiz quiz, CompiledAnswerKey key, long afterId, boolean cancellable,
+                                    boolean[] written) {
+        List<QuizSubmission> chunk;
+        do {
+            if (cancellable && job.cancelled) {
+                return null;
+            }
+            chunk = submissionRepository.findSubmissionPage(quiz.getId(), afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            final List<QuizSubmission> current = chunk;
+            List<RegradeDiffEntry> changes = gradingPool.submit(() -> current.parallelStream()
+                    .map(submission -> rescore(submission, key, quiz.getPassingScore()))
+                    .filter(Objects::nonNull)
+                    .toList()).join();
+
+            if (!job.dryRun && !changes.isEmpty()) {
+                written[0] = true;
+                jdbcTemplate.batchUpdate(UPDATE_SQL, changes.stream()
+                        .map(c -> new Object[]{c.getNewAchievedPoints(), c.getNewTotalPoints(), c.getNewStatus(), c.getSubmissionId()})
+                        .toList());
+            }
+            job.scanned.addAndGet(chunk.size());
+            job.changed.addAndGet(changes.size());
+            job.addDiff(changes, diffLimit);
+        } while (chunk.size() == chunkSize);
+        return afterId;
+    }
+
+    // Returns the change for the submission, or null if its result stays the same.
+    private static RegradeDiffEntry rescore(QuizSubmission submission, CompiledAnswerKey key, Integer passingScore) {
+        SubmittedAnswers answers;
+        try {
+            answers = SubmittedAnswersCodec.read(submission);
+        } catch (Exception e) {
+            log.warn("Cannot re-grade submission ID {}: {}", submission.getId(), e.getMessage());
+            return null;
+        }
+        int achieved = key.score(answers);
+        int total = key.totalPoints();
+        String status = CompiledAnswerKey.studentStatus(achieved, total, passingScore);
+        if (Objects.equals(submission.getAchievedPoints(), achieved)
+                && Objects.equals(submission.getTotalPossiblePoints(), total)
+                && Objects.equals(submission.getStudentStatus(), status)) {
+            return null;
+        }
+        return new RegradeDiffEntry(submission.getId(), submission.getQuizId(), submission.getUserId(),
+                submission.getAchievedPoints(), achieved, submission.getTotalPossiblePoints(), total,
+                submission.getStudentStatus(), status);
+    }
+
+    private static boolean sameGrading(List<QuizQuestionKey> current, List<QuizQuestionKey> updated) {
+        if (current.size() != updated.size()) {
+            return false;
+        }
+        for (int i = 0; i < current.size(); i++) {
+            QuizQuestionKey a = current.get(i);
+            QuizQuestionKey b = updated.get(i);
+            if (!a.getQuestionId().equals(b.getQuestionId()) || !a.getPoints().equals(b.getPoints())
+                    || !Objects.equals(a.getAnswerKey(), b.getAnswerKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void pruneFinishedJobs() {
+        if (jobs.size() < retainedJobs) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing(job -> job.finishedAt))
+                .limit(jobs.size() - retainedJobs + 1L)
+                .toList()
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static final class RegradeJob {
+        final String id;
+        final List<Integer> questionIds;
+        final boolean dryRun;
+        final boolean reconcile; // All quizzes with a stored key instead of those using questionIds
+        final AtomicInteger quizzesDone = new AtomicInteger();
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong changed = new AtomicLong();
+        final List<RegradeDiffEntry> diff = new ArrayList<>();
+        volatile String state = "QUEUED";
+        volatile boolean cancelled;
+        volatile int quizzesTotal;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile String message;
+
+        RegradeJob(String id, List<Integer> questionIds, boolean dryRun, boolean reconcile) {
+            this.id = id;
+            this.questionIds = questionIds;
+            this.dryRun = dryRun;
+            this.reconcile = reconcile;
+        }
+
+        // Only dry runs keep the changed rows, and at most diffLimit of them
+        synchronized void addDiff(List<RegradeDiffEntry> changes, int diffLimit) {
+            if (!dryRun) {
+                return;
+            }
+            for (RegradeDiffEntry change : changes) {
+                if (diff.size() >= diffLimit) {
+                    return;
+                }
+                diff.add(change);
+            }
+        }
+
+        synchronized void note(String text) {
+            message = message == null ? text : message + " " + text;
+        }
+
+        synchronized RegradeJobStatus toStatus() {
+            return new RegradeJobStatus(id, state, dryRun,
+                    questionIds, quizzesTotal, quizzesDone.get(), scanned.get(), changed.get(),
+                    startedAt, finishedAt, message, dryRun ? List.copyOf(diff) : null);
+        }
+    }
+}
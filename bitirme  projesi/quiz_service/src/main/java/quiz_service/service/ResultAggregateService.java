@@ -0,0 +1,161 @@
+package quiz_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import quiz_service.dao.QuizResultAggregateRepository;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.Quiz;
+import quiz_service.model.QuizResultAggregate;
+import quiz_service.model.QuizSubmission;
+import quiz_service.model.StudentSubmissionResultDto;
+
+import java.util.List;
+import java.util.Optional;
+
+// Maintains quiz_result_aggregate: one row per quiz, updated under a row lock for every submission.
+@Service
+@Slf4j
+public class ResultAggregateService {
+
+    private final QuizResultAggregateRepository aggregateRepository;
+    private final QuizSubmissionRepository submissionRepository;
+    private final ResultStreamService resultStream;
+    private final int rebuildChunkSize;
+
+    public ResultAggregateService(QuizResultAggregateRepository aggregateRepository,
+                                  QuizSubmissionRepository submissionRepository, ResultStreamService resultStream,
+                                  @Value("${quiz.results.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.aggregateRepository = aggregateRepository;
+        this.submissionRepository = submissionRepository;
+        this.resultStream = resultStream;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    /** Adds one submission to the aggregate of its quiz. Joins the caller's transaction. */
+    @Transactional
+    public void recordSubmission(QuizSubmission submission, Integer passingScore) {
+        QuizResultAggregate aggregate = lockAggregate(submission.getQuizId());
+        add(aggregate, submission.getAchievedPoints(), submission.getTotalPossiblePoints(),
+                submission.getStudentStatus(), passingScore);
+        afterCommit(() -> resultStream.submissionsStored(submission.getQuizId(), List.of(submission)));
+    }
+
+    /** Adds several submissions of one quiz while holding its row lock once. */
+    @Transactional
+    public void recordSubmissions(Integer quizId, List<QuizSubmission> submissions, Integer passingScore) {
+        QuizResultAggregate aggregate = lockAggregate(quizId);
+        for (QuizSubmission submission : submissions) {
+            add(aggregate, submission.getAchievedPoints(), submission.getTotalPossiblePoints(),
+                    submission.getStudentStatus(), passingScore);
+        }
+        afterCommit(() -> resultStream.submissionsStored(quizId, submissions));
+    }
+
+    /** Returns the aggregate of the quiz, rebuilding it from quiz_submission if it does not exist yet. */
+    @Transactional
+    public QuizResultAggregate getOrRebuild(Quiz quiz) {
+        Optional<QuizResultAggregate> aggregate = aggregateRepository.findById(quiz.getId());
+        return aggregate.orElseGet(() -> rebuild(quiz));
+    }
+
+    /**
+     * Recomputes the aggregate of the quiz from its submissions, read in chunks of
+     * {@code quiz.results.rebuild-chunk-size}. The row stays locked until the rebuild commits,
+     * so submissions arriving meanwhile are applied on top of the rebuilt values.
+     */
+    @Transactional
+    public QuizResultAggregate rebuild(Quiz quiz) {
+        QuizResultAggregate aggregate = lockAggregate(quiz.getId());
+        aggregate.setParticipantCount(0);
+        aggregate.setScoredCount(0);
+        aggregate.setPointsSum(0);
+        aggregate.setPointsSquareSum(0);
+        aggregate.setPercentageSum(0);
+        aggregate.setPassedCount(0);
+        aggregate.setFailedCount(0);
+        aggregate.setHistogram(null);
+
+        long afterId = 0L;
+        List<StudentSubmissionResultDto> chunk;
+        do {
+            chunk = submissionRepository.findResultPage(quiz.getId(), afterId, PageRequest.of(0, rebuildChunkSize));
+            for (StudentSubmissionResultDto row : chunk) {
+                add(aggregate, row.getAchievedPoints(), row.getTotalPossiblePoints(), row.getStatus(), quiz.getPassingScore());
+            }
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getSubmissionId();
+            }
+        } while (chunk.size() == rebuildChunkSize);
+
+        log.info("Rebuilt result aggregate for quiz ID {}: {} participants.", quiz.getId(), aggregate.getParticipantCount());
+        afterCommit(() -> resultStream.aggregateChanged(quiz.getId()));
+        return aggregate;
+    }
+
+    @Transactional
+    public void delete(Integer quizId) {
+        aggregateRepository.findById(quizId).ifPresent(aggregateRepository::delete);
+    }
+
+    public static boolean isPassed(String studentStatus, Integer achievedPoints, Integer totalPoints, Integer passingScore) {
+        if ("PASSED".equalsIgnoreCase(studentStatus)) {
+            return true;
+        }
+        return achievedPoints != null && passingScore != null && totalPoints != null && totalPoints > 0
+                && (achievedPoints * 100.0 / totalPoints) >= passingScore;
+    }
+
+    public static int histogramBucket(int achievedPoints, int totalPoints) {
+        int bucket = (int) (achievedPoints * 100.0 / totalPoints / (100 / QuizResultAggregate.HISTOGRAM_BUCKETS));
+        return Math.max(0, Math.min(bucket, QuizResultAggregate.HISTOGRAM_BUCKETS - 1));
+    }
+
+    // Live result streams must only see committed results.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private QuizResultAggregate lockAggregate(Integer quizId) {
+        aggregateRepository.insertIfAbsent(quizId);
+        return aggregateRepository.findForUpdate(quizId).orElseThrow(() ->
+                new IllegalStateException("Result aggregate row missing for quiz ID " + quizId));
+    }
+
+    private static void add(QuizResultAggregate aggregate, Integer achievedPoints, Integer totalPoints,
+                            String studentStatus, Integer passingScore) {
+        aggregate.setParticipantCount(aggregate.getParticipantCount() + 1);
+        if (isPassed(studentStatus, achievedPoints, totalPoints, passingScore)) {
+            aggregate.setPassedCount(aggregate.getPassedCount() + 1);
+        } else {
+            aggregate.setFailedCount(aggregate.getFailedCount() + 1);
+        }
+        if (achievedPoints == null || totalPoints == null || totalPoints <= 0) {
+            return;
+        }
+        long points = achievedPoints;
+        aggregate.setScoredCount(aggregate.getScoredCount() + 1);
+        aggregate.setPointsSum(aggregate.getPointsSum() + points);
+        aggregate.setPointsSquareSum(aggregate.getPointsSquareSum() + points * points);
+        aggregate.setPercentageSum(aggregate.getPercentageSum() + achievedPoints * 100.0 / totalPoints);
+
+        int[] histogram = aggregate.getHistogram() != null
+                ? aggregate.getHistogram().clone()
+                : new int[QuizResultAggregate.HISTOGRAM_BUCKETS];
+        histogram[histogramBucket(achievedPoints, totalPoints)]++;
+        aggregate.setHistogram(histogram); // New array instance so Hibernate sees the change
+    }
+}
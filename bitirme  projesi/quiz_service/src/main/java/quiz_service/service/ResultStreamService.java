@@ -0,0 +1,278 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import quiz_service.dao.QuizResultAggregateRepository;
+import quiz_service.model.QuizResultAggregate;
+import quiz_service.model.QuizSubmission;
+import quiz_service.model.ResultDeltaDto;
+import quiz_service.model.StudentSubmissionResultDto;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live results for instructors as Server-Sent Events. Each quiz with subscribers has one
+ * {@link QuizBroadcaster}; stored submissions are only collected there, and every
+ * {@code interval-ms} a single thread sends one coalesced "delta" frame per changed quiz to all
+ * of its subscribers, built from one read of the result aggregate. A burst of submissions
+ * therefore costs at most one frame per quiz and interval, whatever its size. Quizzes without
+ * subscribers cost one map lookup per submission.
+ */
+@Service
+@Slf4j
+public class ResultStreamService {
+
+    private static final int BUCKET_WIDTH = 100 / QuizResultAggregate.HISTOGRAM_BUCKETS;
+
+    private final QuizResultAggregateRepository aggregateRepository;
+    private final Map<Integer, QuizBroadcaster> broadcasters = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ScheduledExecutorService ticker;
+    private final Counter framesSent;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final int maxRowsPerFrame;
+    private final long heartbeatMs;
+
+    public ResultStreamService(QuizResultAggregateRepository aggregateRepository, MeterRegistry meterRegistry,
+                               @Value("${quiz.results.stream.interval-ms:1000}") long intervalMs,
+                               @Value("${quiz.results.stream.heartbeat-seconds:15}") long heartbeatSeconds,
+                               @Value("${quiz.results.stream.timeout-minutes:60}") long timeoutMinutes,
+                               @Value("${quiz.results.stream.max-subscribers:500}") int maxSubscribers,
+                               @Value("${quiz.results.stream.max-rows-per-frame:100}") int maxRowsPerFrame) {
+        this.aggregateRepository = aggregateRepository;
+        this.emitterTimeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxSubscribers = maxSubscribers;
+        this.maxRowsPerFrame = Math.max(0, maxRowsPerFrame);
+        this.heartbeatMs = TimeUnit.SECONDS.toMillis(heartbeatSeconds);
+        Gauge.builder("quiz.results.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        this.framesSent = Counter.builder("quiz.results.stream.frames").register(meterRegistry);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "result-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleWithFixedDelay(this::tick, intervalMs, Math.max(50, intervalMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream for the quiz. The first frame carries the current totals and the whole
+     * histogram; later frames only what changed. Returns null when {@code max-subscribers}
+     * streams are open already.
+     */
+    public SseEmitter subscribe(Integer quizId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        QuizBroadcaster broadcaster;
+        while (true) {
+            broadcaster = broadcasters.computeIfAbsent(quizId, QuizBroadcaster::new);
+            if (broadcaster.add(emitter)) {
+                break; // Otherwise it was closed by its last subscriber meanwhile: take a new one
+            }
+        }
+        QuizBroadcaster owner = broadcaster;
+        emitter.onCompletion(() -> unsubscribe(owner, emitter));
+        emitter.onTimeout(() -> unsubscribe(owner, emitter));
+        emitter.onError(error -> unsubscribe(owner, emitter));
+        send(owner, emitter, owner.snapshot(aggregateRepository.findById(quizId).orElse(null)));
+        log.info("Instructor subscribed to live results of quiz ID {} ({} open streams).", quizId, subscriberCount.get());
+        return emitter;
+    }
+
+    /** Called after submissions were committed; they are sent with the next frame of their quiz. */
+    public void submissionsStored(Integer quizId, List<QuizSubmission> submissions) {
+        QuizBroadcaster broadcaster = broadcasters.get(quizId);
+        if (broadcaster != null) {
+            broadcaster.collect(submissions);
+        }
+    }
+
+    /** Called after the aggregate of the quiz was recomputed (rebuild, re-grade). */
+    public void aggregateChanged(Integer quizId) {
+        submissionsStored(quizId, List.of());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        broadcasters.values().forEach(QuizBroadcaster::completeAll);
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        for (QuizBroadcaster broadcaster : broadcasters.values()) {
+            try {
+                if (broadcaster.dirty) {
+                    // Cleared before the read: anything committed after it marks the quiz again for the next tick
+                    broadcaster.dirty = false;
+                    QuizResultAggregate aggregate = aggregateRepository.findById(broadcaster.quizId).orElse(null);
+                    broadcaster.sendToAll(broadcaster.delta(aggregate));
+                    broadcaster.lastSentAt = now;
+                } else if (now - broadcaster.lastSentAt >= heartbeatMs) {
+                    broadcaster.heartbeat(); // Keeps proxies from closing idle streams
+                    broadcaster.lastSentAt = now;
+                }
+            } catch (Exception e) {
+                log.warn("Live results frame for quiz ID {} failed: {}", broadcaster.quizId, e.getMessage());
+            }
+        }
+    }
+
+    private void send(QuizBroadcaster broadcaster, SseEmitter emitter, ResultDeltaDto frame) {
+        try {
+            emitter.send(SseEmitter.event().name("delta").id(Long.toString(frame.getSequence())).data(frame));
+            framesSent.increment();
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(broadcaster, emitter); // Client went away
+        }
+    }
+
+    private void unsubscribe(QuizBroadcaster broadcaster, SseEmitter emitter) {
+        if (broadcaster.remove(emitter)) {
+            subscriberCount.decrementAndGet();
+            if (broadcaster.closeIfEmpty()) {
+                broadcasters.remove(broadcaster.quizId, broadcaster);
+            }
+        }
+    }
+
+    private static String bucketLabel(int bucket) {
+        int lower = bucket * BUCKET_WIDTH;
+        return lower + "-" + (lower + BUCKET_WIDTH) + "%";
+    }
+
+    private final class QuizBroadcaster {
+        private final Integer quizId;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final List<StudentSubmissionResultDto> pendingRows = new ArrayList<>(); // Guarded by this
+        private int omittedRows; // Guarded by this
+        private int[] lastHistogram = new int[QuizResultAggregate.HISTOGRAM_BUCKETS]; // Guarded by this
+        private long sequence; // Guarded by this
+        private boolean closed; // Guarded by this
+        private volatile boolean dirty;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        QuizBroadcaster(Integer quizId) {
+            this.quizId = quizId;
+        }
+
+        synchronized boolean add(SseEmitter emitter) {
+            if (closed) {
+                return false;
+            }
+            emitters.add(emitter);
+            return true;
+        }
+
+        synchronized boolean remove(SseEmitter emitter) {
+            return emitters.remove(emitter);
+        }
+
+        synchronized boolean closeIfEmpty() {
+            closed = emitters.isEmpty();
+            return closed;
+        }
+
+        synchronized void collect(List<QuizSubmission> submissions) {
+            for (QuizSubmission submission : submissions) {
+                if (pendingRows.size() < maxRowsPerFrame) {
+                    pendingRows.add(new StudentSubmissionResultDto(submission.getId(), submission.getUserId(),
+                            submission.getSubmissionDate(), submission.getAchievedPoints(),
+                            submission.getTotalPossiblePoints(), submission.getStudentStatus()));
+                } else {
+                    omittedRows++;
+                }
+            }
+            dirty = true;
+        }
+
+        // Full state for a new subscriber; does not consume pending rows.
+        synchronized ResultDeltaDto snapshot(QuizResultAggregate aggregate) {
+            ResultDeltaDto frame = totals(aggregate);
+            int[] histogram = histogramOf(aggregate);
+            Map<String, Integer> buckets = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                buckets.put(bucketLabel(bucket), histogram[bucket]);
+            }
+            frame.setChangedBuckets(buckets);
+            frame.setNewSubmissions(List.of());
+            return frame;
+        }
+
+        // Changes since the previous frame; consumes pending rows.
+        synchronized ResultDeltaDto delta(QuizResultAggregate aggregate) {
+            ResultDeltaDto frame = totals(aggregate);
+            int[] histogram = histogramOf(aggregate);
+            Map<String, Integer> changed = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                if (histogram[bucket] != lastHistogram[bucket]) {
+                    changed.put(bucketLabel(bucket), histogram[bucket]);
+                }
+            }
+            lastHistogram = histogram;
+            frame.setChangedBuckets(changed);
+            frame.setNewSubmissions(List.copyOf(pendingRows));
+            frame.setOmittedSubmissions(omittedRows);
+            pendingRows.clear();
+            omittedRows = 0;
+            return frame;
+        }
+
+        void sendToAll(ResultDeltaDto frame) {
+            for (SseEmitter emitter : emitters) {
+                send(this, emitter, frame);
+            }
+        }
+
+        void heartbeat() {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(this, emitter);
+                }
+            }
+        }
+
+        void completeAll() {
+            emitters.forEach(SseEmitter::complete);
+        }
+
+        private ResultDeltaDto totals(QuizResultAggregate aggregate) {
+            ResultDeltaDto frame = new ResultDeltaDto();
+            frame.setQuizId(quizId);
+            frame.setSequence(++sequence);
+            if (aggregate == null) {
+                frame.setTotalParticipants(0);
+                frame.setAverageScorePercentage(0.0);
+                frame.setPassedCount(0);
+                frame.setFailedCount(0);
+                return frame;
+            }
+            double average = aggregate.getScoredCount() > 0 ? aggregate.getPercentageSum() / aggregate.getScoredCount() : 0.0;
+            frame.setTotalParticipants((int) aggregate.getParticipantCount());
+            frame.setAverageScorePercentage(Math.round(average * 10.0) / 10.0);
+            frame.setPassedCount((int) aggregate.getPassedCount());
+            frame.setFailedCount((int) aggregate.getFailedCount());
+            return frame;
+        }
+
+        private int[] histogramOf(QuizResultAggregate aggregate) {
+            return aggregate != null && aggregate.getHistogram() != null
+                    ? aggregate.getHistogram().clone()
+                    : new int[QuizResultAggregate.HISTOGRAM_BUCKETS];
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package quiz_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.QuizSubmission;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Converts submitted_answers_json of existing rows to the binary submitted_answers column.
+@Service
+@Slf4j
+public class SubmissionAnswerMigrationService {
+
+    private final QuizSubmissionRepository submissionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public SubmissionAnswerMigrationService(QuizSubmissionRepository submissionRepository,
+                                            PlatformTransactionManager transactionManager,
+                                            @Value("${quiz.submission.migration-chunk-size:500}") int chunkSize) {
+        this.submissionRepository = submissionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Migrates all legacy rows, one transaction per chunk, and returns a summary with the
+     * storage used by the answers before and after. Rows whose JSON cannot be parsed are left as they are.
+     */
+    public String migrateAll() {
+        long[] totals = new long[4]; // migrated, skipped, json bytes, binary bytes
+        long afterId = 0L;
+        while (true) {
+            final long from = afterId;
+            Long lastId = transactionTemplate.execute(status -> migrateChunk(from, totals));
+            if (lastId == null) {
+                break;
+            }
+            afterId = lastId;
+        }
+        String summary = String.format("Migrated %d submissions (%d skipped): %d bytes as JSON, %d bytes as binary.",
+                totals[0], totals[1], totals[2], totals[3]);
+        log.info(summary);
+        return summary;
+    }
+
+    // Returns the last ID of the chunk, or null when there was nothing left.
+    private Long migrateChunk(long afterId, long[] totals) {
+        List<QuizSubmission> chunk = submissionRepository.findLegacyAnswerPage(afterId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+        for (QuizSubmission submission : chunk) {
+            try {
+                byte[] encoded = SubmittedAnswersCodec.encode(
+                        SubmittedAnswersCodec.decodeJson(submission.getSubmittedAnswersJson()));
+                totals[2] += submission.getSubmittedAnswersJson().getBytes(StandardCharsets.UTF_8).length;
+                totals[3] += encoded.length;
+                submission.setSubmittedAnswers(encoded);
+                submission.setSubmittedAnswersJson(null);
+                totals[0]++;
+            } catch (Exception e) {
+                log.warn("Could not migrate answers of submission ID {}: {}", submission.getId(), e.getMessage());
+                totals[1]++;
+            }
+        }
+        return chunk.get(chunk.size() - 1).getId();
+    }
+}
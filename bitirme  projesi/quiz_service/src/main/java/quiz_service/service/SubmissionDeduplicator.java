@@ -0,0 +1,99 @@
+package quiz_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Recent submit results by (quizId, userId), the idempotency key of a submission: a student
+ * submits a quiz once. A retried or double-clicked submit is answered from here without grading
+ * or touching the database. It waits for the first request if that one is still running, and gets
+ * its result if it already finished. Only successful results are kept, so a failed submit can be
+ * retried. Retries that miss this filter (restart, other instance) are caught by the unique
+ * (user_id, quiz_id) index on quiz_submission.
+ */
+@Component
+@Slf4j
+public class SubmissionDeduplicator {
+
+    private record SubmitKey(int quizId, long userId) {}
+
+    private final Cache<SubmitKey, CompletableFuture<ResponseEntity<?>>> recent;
+    private final long waitMillis;
+    private final Counter memoryDuplicates;
+    private final Counter databaseDuplicates;
+
+    public SubmissionDeduplicator(@Value("${quiz.submission.dedup.maximum-size:100000}") long maximumSize,
+                                  @Value("${quiz.submission.dedup.ttl-minutes:60}") long ttlMinutes,
+                                  @Value("${quiz.submission.dedup.wait-ms:10000}") long waitMillis,
+                                  MeterRegistry meterRegistry) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.waitMillis = waitMillis;
+        this.memoryDuplicates = Counter.builder("quiz.submission.duplicates").tag("source", "memory").register(meterRegistry);
+        this.databaseDuplicates = Counter.builder("quiz.submission.duplicates").tag("source", "database").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code submit} for the first request of the key. Duplicates get the same response;
+     * a duplicate that arrives while the first request is still running waits up to
+     * {@code wait-ms} for it and gets 409 after that.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> once(Integer quizId, Long userId, Supplier<ResponseEntity<T>> submit) {
+        SubmitKey key = new SubmitKey(quizId, userId);
+        CompletableFuture<ResponseEntity<?>> mine = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> first = recent.asMap().putIfAbsent(key, mine);
+        if (first != null) {
+            memoryDuplicates.increment();
+            log.info("Duplicate submit for Quiz ID: {}, User ID: {} answered with the first request's result.", quizId, userId);
+            return (ResponseEntity<T>) await(first);
+        }
+        ResponseEntity<T> response;
+        try {
+            response = submit.get();
+        } catch (RuntimeException e) {
+            recent.asMap().remove(key, mine);
+            mine.complete(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            recent.asMap().remove(key, mine);
+        }
+        mine.complete(response);
+        return response;
+    }
+
+    /** Counts a duplicate that was only recognized by the stored submission. */
+    public void recordDatabaseDuplicate() {
+        databaseDuplicates.increment();
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> first) {
+        try {
+            return first.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import quiz_service.model.QuizSubmission;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Write-behind buffer for submissions, enabled with {@code quiz.submission.ingest-mode=batched}.
+ * Request threads enqueue graded submissions; one flusher thread drains up to
+ * {@code batch-size} of them and inserts them in a single batched transaction.
+ * A submission is acknowledged only after its batch has committed.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.submission.ingest-mode", havingValue = "batched")
+@Slf4j
+public class SubmissionIngestBuffer {
+
+    private record Pending(QuizSubmission submission, Integer passingScore, CompletableFuture<QuizSubmission> result) {}
+
+    private final SubmissionWriter submissionWriter;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long maxWaitMs;
+    private final long ackTimeoutMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public SubmissionIngestBuffer(SubmissionWriter submissionWriter, MeterRegistry meterRegistry,
+                                  @Value("${quiz.submission.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${quiz.submission.batch-size:50}") int batchSize,
+                                  @Value("${quiz.submission.max-wait-ms:20}") long maxWaitMs,
+                                  @Value("${quiz.submission.ack-timeout-ms:10000}") long ackTimeoutMs) {
+        this.submissionWriter = submissionWriter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxWaitMs = maxWaitMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+        Gauge.builder("quiz.submission.queue.size", queue, Queue::size).register(meterRegistry);
+        this.flusher = new Thread(this::flushLoop, "submission-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the submission and waits until it is committed. Throws 503 when the queue is full
+     * or the commit does not happen within {@code ack-timeout-ms}, so the client can retry.
+     */
+    public QuizSubmission submit(QuizSubmission submission, Integer passingScore) {
+        Pending pending = new Pending(submission, passingScore, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            log.warn("Submission queue full, rejecting submission for Quiz ID: {}, User ID: {}",
+                    submission.getQuizId(), submission.getUserId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Submission queue is full, please retry.");
+        }
+        try {
+            return pending.result().get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Submission not confirmed in time, please retry.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Submission interrupted.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not persist submission", e.getCause());
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Give concurrent submitters a short window to fill the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("Unexpected error in submission flusher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<QuizSubmission> submissions = new ArrayList<>(batch.size());
+        Map<Integer, Integer> passingScores = new HashMap<>();
+        for (Pending pending : batch) {
+            submissions.add(pending.submission());
+            passingScores.put(pending.submission().getQuizId(), pending.passingScore());
+        }
+        try {
+            List<QuizSubmission> saved = submissionWriter.persistBatch(submissions, passingScores);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(saved.get(i));
+            }
+        } catch (Exception e) {
+            // One bad row must not fail the whole batch: retry the rows one by one
+            log.warn("Batch insert of {} submissions failed ({}). Retrying individually.", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                pending.submission().setId(null);
+                try {
+                    pending.result().complete(submissionWriter.persist(pending.submission(), pending.passingScore()));
+                } catch (Exception single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    // Stop accepting new submissions and let the flusher commit what is already queued.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(ackTimeoutMs);
+    }
+}
@@ -0,0 +1,85 @@
+package quiz_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.GradingTask;
+import quiz_service.model.QuizSubmission;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Persists graded submissions together with their result aggregate update.
+@Service
+@DependsOn("submissionSequenceInitializer") // No insert before the id sequence is aligned
+@Slf4j
+public class SubmissionWriter {
+
+    private static final String COMPLETE_TASK_SQL =
+            "UPDATE grading_task SET status = 'DONE', submission_id = ?, finished_at = ?, claim_token = NULL " +
+            "WHERE id = ? AND claim_token = ?";
+
+    private final QuizSubmissionRepository submissionRepository;
+    private final ResultAggregateService resultAggregateService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubmissionWriter(QuizSubmissionRepository submissionRepository, ResultAggregateService resultAggregateService,
+                            JdbcTemplate jdbcTemplate) {
+        this.submissionRepository = submissionRepository;
+        this.resultAggregateService = resultAggregateService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public QuizSubmission persist(QuizSubmission submission, Integer passingScore) {
+        QuizSubmission savedSubmission = submissionRepository.save(submission);
+        resultAggregateService.recordSubmission(savedSubmission, passingScore);
+        return savedSubmission;
+    }
+
+    /**
+     * Inserts the submissions in one transaction (JDBC-batched) and applies them to the result
+     * aggregates with one row lock per quiz. {@code passingScores} maps quiz ID to passing score.
+     */
+    @Transactional
+    public List<QuizSubmission> persistBatch(List<QuizSubmission> submissions, Map<Integer, Integer> passingScores) {
+        List<QuizSubmission> savedSubmissions = submissionRepository.saveAll(submissions);
+        Map<Integer, List<QuizSubmission>> byQuiz = new TreeMap<>(); // Fixed lock order across batches
+        for (QuizSubmission submission : savedSubmissions) {
+            byQuiz.computeIfAbsent(submission.getQuizId(), id -> new ArrayList<>()).add(submission);
+        }
+        byQuiz.forEach((quizId, quizSubmissions) ->
+                resultAggregateService.recordSubmissions(quizId, quizSubmissions, passingScores.get(quizId)));
+        log.debug("Persisted batch of {} submissions for {} quizzes.", savedSubmissions.size(), byQuiz.size());
+        return savedSubmissions;
+    }
+
+    /**
+     * Stores the submissions graded from outbox tasks (same order as {@code tasks}) like
+     * {@link #persistBatch} and marks the tasks done in the same transaction. Rolls back if
+     * another worker has taken over one of the tasks meanwhile, so no submission is stored twice.
+     */
+    @Transactional
+    public List<QuizSubmission> persistGradedTasks(List<GradingTask> tasks, List<QuizSubmission> submissions,
+                                                   Map<Integer, Integer> passingScores) {
+        List<QuizSubmission> savedSubmissions = persistBatch(submissions, passingScores);
+        submissionRepository.flush(); // Inserts first, so the task rows point at existing submissions
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            GradingTask task = tasks.get(i);
+            updates.add(new Object[]{savedSubmissions.get(i).getId(), now, task.getId(), task.getClaimToken()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(COMPLETE_TASK_SQL, updates);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new IllegalStateException("Grading task " + tasks.get(i).getId() + " was claimed by another worker");
+            }
+        }
+        return savedSubmissions;
+    }
+}
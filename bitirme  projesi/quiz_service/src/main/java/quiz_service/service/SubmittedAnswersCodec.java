@@ -0,0 +1,198 @@
+package quiz_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import quiz_service.model.QuizSubmission;
+import quiz_service.model.Response;
+import quiz_service.model.SubmittedAnswers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary format of {@code quiz_submission.submitted_answers}:
+ * <pre>
+ *   version:u8  count:varint
+ *   count x questionId delta (zigzag varint, ascending IDs)
+ *   count x answer: length:varint + UTF-8 text
+ * </pre>
+ Version 1 was never released. Rows written before this format keep their answers in
+ * {@code submitted_answers_json} until {@link SubmissionAnswerMigrationService} converts them.
+ */
+public final class SubmittedAnswersCodec {
+
+    private static final int FORMAT_VERSION = 2;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private SubmittedAnswersCodec() {
+    }
+
+    /** Encodes the valid responses; if a question is answered more than once the last response wins. */
+    public static byte[] encode(List<Response> responses) {
+        // (questionId, response index) packed into longs: one primitive sort orders by ID, then input order
+        long[] order = new long[responses.size()];
+        int valid = 0;
+        for (int i = 0; i < responses.size(); i++) {
+            Response response = responses.get(i);
+            if (response != null && response.getId() != null && response.getResponse() != null) {
+                order[valid++] = ((long) response.getId() << 32) | i;
+            }
+        }
+        Arrays.sort(order, 0, valid);
+
+        int count = 0;
+        for (int i = 0; i < valid; i++) {
+            if (i + 1 == valid || (int) (order[i + 1] >> 32) != (int) (order[i] >> 32)) {
+                order[count++] = order[i]; // Last response of each question ID
+            }
+        }
+        int[] questionIds = new int[count];
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            questionIds[i] = (int) (order[i] >> 32);
+            texts[i] = responses.get((int) order[i]).getResponse();
+        }
+        return encode(questionIds, texts);
+    }
+
+    /** Re-encodes decoded answers, e.g. ones read from the legacy JSON column. */
+    public static byte[] encode(SubmittedAnswers answers) {
+        int count = answers.size();
+        int[] questionIds = new int[count];
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            questionIds[i] = answers.questionIdAt(i);
+            texts[i] = answers.textAt(i);
+        }
+        return encode(questionIds, texts);
+    }
+
+    private static byte[] encode(int[] questionIds, String[] texts) {
+        int count = questionIds.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + count * 16);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, count);
+        int previous = 0;
+        for (int questionId : questionIds) {
+            writeVarint(out, zigzag(questionId - previous));
+            previous = questionId;
+        }
+        for (int i = 0; i < count; i++) {
+            byte[] text = (texts[i] != null ? texts[i] : "").getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, text.length);
+            out.write(text, 0, text.length);
+        }
+        return out.toByteArray();
+    }
+
+    public static SubmittedAnswers decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return SubmittedAnswers.EMPTY;
+        }
+        int version = data[0];
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown submitted answers format version " + data[0]);
+        }
+        int[] position = {1};
+        int count = readVarint(data, position);
+        int[] questionIds = new int[count];
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unzigzag(readVarint(data, position));
+            questionIds[i] = previous;
+        }
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = readVarint(data, position);
+            texts[i] = new String(data, position[0], length, StandardCharsets.UTF_8);
+            position[0] += length;
+        }
+        return new SubmittedAnswers(questionIds, texts);
+    }
+
+    /** Parses the legacy {@code {"questionId":"answer",...}} JSON with a streaming parser, without building a map. */
+    public static SubmittedAnswers decodeJson(String json) throws IOException {
+        if (json == null || json.isEmpty()) {
+            return SubmittedAnswers.EMPTY;
+        }
+        int[] questionIds = new int[16];
+        String[] texts = new String[16];
+        int count = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Submitted answers JSON is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int questionId = Integer.parseInt(parser.currentName());
+                parser.nextToken();
+                if (count == questionIds.length) {
+                    questionIds = Arrays.copyOf(questionIds, count * 2);
+                    texts = Arrays.copyOf(texts, count * 2);
+                }
+                questionIds[count] = questionId;
+                texts[count++] = parser.getValueAsString();
+            }
+        }
+        sortByQuestionId(questionIds, texts, count);
+        return new SubmittedAnswers(Arrays.copyOf(questionIds, count), Arrays.copyOf(texts, count));
+    }
+
+    /** Answers of the submission from whichever column holds them. */
+    public static SubmittedAnswers read(QuizSubmission submission) throws IOException {
+        if (submission.getSubmittedAnswers() != null) {
+            return decode(submission.getSubmittedAnswers());
+        }
+        return decodeJson(submission.getSubmittedAnswersJson());
+    }
+
+    // Insertion sort: answer lists are small and usually already ordered.
+    private static void sortByQuestionId(int[] questionIds, String[] texts, int count) {
+        for (int i = 1; i < count; i++) {
+            int id = questionIds[i];
+            String text = texts[i];
+            int j = i - 1;
+            while (j >= 0 && questionIds[j] > id) {
+                questionIds[j + 1] = questionIds[j];
+                texts[j + 1] = texts[j];
+                j--;
+            }
+            questionIds[j + 1] = id;
+            texts[j + 1] = text;
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= data.length || shift > 28) {
+                throw new IllegalArgumentException("Malformed submitted answers data");
+            }
+            b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
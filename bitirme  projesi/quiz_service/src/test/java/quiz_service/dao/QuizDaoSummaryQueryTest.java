@@ -0,0 +1,91 @@
+package quiz_service.dao;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import quiz_service.model.Quiz;
+import quiz_service.model.QuizSummaryDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The quiz list must cost one statement per page, whichever storage holds the question IDs.
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"})
+class QuizDaoSummaryQueryTest {
+
+    private static final List<String> STATUSES = List.of("PUBLISHED", "ACTIVE");
+
+    @Autowired
+    private QuizDao quizDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createQuizzes() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < 30; i++) {
+            Quiz quiz = new Quiz();
+            quiz.setTitle("Quiz " + i);
+            quiz.setStatus(i % 2 == 0 ? "PUBLISHED" : "ACTIVE");
+            quiz.setStartDate(i < 25 ? start.plusDays(i % 10) : null);
+            List<Integer> questionIds = IntStream.rangeClosed(1, i % 5 + 1).boxed().toList();
+            if (i % 3 == 0) {
+                quiz.setQuestionIdArray(questionIds.stream().mapToInt(Integer::intValue).toArray());
+            } else {
+                quiz.setQuestionIdList(new ArrayList<>(questionIds));
+            }
+            entityManager.persist(quiz);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void everySummaryPageIsOneStatement() {
+        List<QuizSummaryDto> all = new ArrayList<>();
+        List<QuizSummaryDto> page = quizDao.findSummaryPage(STATUSES, PageRequest.of(0, 7));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            QuizSummaryDto last = page.get(page.size() - 1);
+            statistics.clear();
+            page = last.getStartDate() != null
+                    ? quizDao.findSummaryPageAfter(STATUSES, last.getStartDate(), last.getId(), PageRequest.of(0, 7))
+                    : quizDao.findUndatedSummaryPageAfter(STATUSES, last.getId(), PageRequest.of(0, 7));
+            assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        assertEquals(30, all.size());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        for (QuizSummaryDto summary : all) {
+            int index = Integer.parseInt(summary.getTitle().substring("Quiz ".length()));
+            assertEquals(index % 5 + 1, summary.getQuestionCount(), summary.getTitle());
+        }
+    }
+
+    @Test
+    void allSummariesIsOneStatement() {
+        assertEquals(30, quizDao.findAllSummaries().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
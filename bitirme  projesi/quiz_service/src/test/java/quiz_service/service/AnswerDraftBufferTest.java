@@ -0,0 +1,80 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import quiz_service.dao.QuizAnswerDraftRepository;
+import quiz_service.model.Response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AnswerDraftBufferTest {
+
+    private final QuizAnswerDraftRepository draftRepository = mock(QuizAnswerDraftRepository.class);
+    private final QuizAttemptService attemptService = mock(QuizAttemptService.class);
+    private final AnswerDraftBuffer buffer = new AnswerDraftBuffer(draftRepository, attemptService,
+            mock(JdbcTemplate.class), new SimpleMeterRegistry(), 60_000, 500, 30, 3, 10);
+
+    @AfterEach
+    void shutdown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void savesOnlyAnswersToTheQuizQuestions() {
+        when(draftRepository.findByQuizIdAndUserId(1, 7L)).thenReturn(Optional.empty());
+        when(attemptService.autosaveWindow(1, 7L)).thenReturn(window(LocalDateTime.now().plusMinutes(5)));
+
+        assertEquals(HttpStatus.NO_CONTENT, buffer.save(1, 7L, List.of(response(11, "Ankara"), response(12, "b"))));
+        assertEquals(HttpStatus.BAD_REQUEST, buffer.save(1, 7L, List.of(response(12, "c"), response(99, "x"))));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, buffer.save(1, 7L, List.of(response(13, "01234567890"))));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, buffer.save(1, 7L,
+                List.of(response(11, "a"), response(12, "b"), response(13, "c"), response(11, "d"))));
+
+        List<Response> saved = buffer.get(1, 7L);
+        assertEquals(2, saved.size());
+        assertTrue(saved.stream().anyMatch(r -> r.getId() == 12 && r.getResponse().equals("b")));
+        verify(attemptService, times(1)).autosaveWindow(1, 7L);
+    }
+
+    @Test
+    void refusalsAreReturnedAndLookedUpAgain() {
+        when(draftRepository.findByQuizIdAndUserId(2, 7L)).thenReturn(Optional.empty());
+        when(attemptService.autosaveWindow(2, 7L))
+                .thenReturn(new QuizAttemptService.AutosaveWindow(HttpStatus.FORBIDDEN, new int[0], null))
+                .thenReturn(window(null));
+
+        assertEquals(HttpStatus.FORBIDDEN, buffer.save(2, 7L, List.of(response(11, "a"))));
+        assertEquals(HttpStatus.NO_CONTENT, buffer.save(2, 7L, List.of(response(11, "a"))));
+    }
+
+    @Test
+    void refusesAfterTheDeadlineAndAfterSubmit() {
+        when(draftRepository.findByQuizIdAndUserId(anyInt(), anyLong())).thenReturn(Optional.empty());
+        when(attemptService.autosaveWindow(3, 7L)).thenReturn(window(LocalDateTime.now().minusSeconds(1)));
+        when(attemptService.autosaveWindow(4, 7L)).thenReturn(window(null));
+
+        assertEquals(HttpStatus.CONFLICT, buffer.save(3, 7L, List.of(response(11, "a"))));
+        assertEquals(HttpStatus.NO_CONTENT, buffer.save(4, 7L, List.of(response(11, "a"))));
+        buffer.discard(4, 7L);
+        assertEquals(HttpStatus.CONFLICT, buffer.save(4, 7L, List.of(response(11, "b"))));
+    }
+
+    private static QuizAttemptService.AutosaveWindow window(LocalDateTime closesAt) {
+        return new QuizAttemptService.AutosaveWindow(null, new int[]{11, 12, 13}, closesAt);
+    }
+
+    private static Response response(Integer id, String text) {
+        Response response = new Response();
+        response.setId(id);
+        response.setResponse(text);
+        return response;
+    }
+}
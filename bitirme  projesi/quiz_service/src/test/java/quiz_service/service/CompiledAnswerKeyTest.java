@@ -0,0 +1,65 @@
+package quiz_service.service;
+
+import org.junit.jupiter.api.Test;
+import quiz_service.model.QuizQuestionKey;
+import quiz_service.model.Response;
+import quiz_service.model.SubmittedAnswers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledAnswerKeyTest {
+
+    @Test
+    void matchesLikeTrimmedEqualsIgnoreCase() {
+        String[][] cases = {
+                {"İstanbul", "İstanbul"}, {"İstanbul", "istanbul"}, {"İstanbul", "  İSTANBUL "},
+                {"Işık", "IŞIK"}, {"Işık", "ışık"}, {"Çağrı Gökşen", "çağrı gökşen"},
+                {"Ünlü Öğretmen", "ünlü öğretmen"}, {"Straße", "STRASSE"}, {"Straße", "straße"},
+                {"Ελλάδα", "ΕΛΛΆΔΑ"}, {"Москва", "москва"}, {"paris", "Paris\t"}, {"a", "b"}, {"", "  "}
+        };
+        for (String[] c : cases) {
+            String key = AnswerKeyService.normalize(c[0]);
+            assertEquals(c[0].trim().equalsIgnoreCase(c[1].trim()), CompiledAnswerKey.matches(key, c[1]),
+                    () -> c[0] + " vs " + c[1]);
+        }
+        assertTrue(CompiledAnswerKey.matches(AnswerKeyService.normalize(" İstanbul "), "İstanbul"));
+        assertFalse(CompiledAnswerKey.matches(null, "İstanbul"));
+    }
+
+    @Test
+    void scoresTurkishAndOtherNonAsciiAnswers() {
+        CompiledAnswerKey key = CompiledAnswerKey.compile(List.of(
+                key(11, 0, 5, "İstanbul"),
+                key(12, 1, 3, "Işık"),
+                key(13, 2, 2, "Ελλάδα")));
+
+        assertEquals(10, key.totalPoints());
+        assertEquals(10, key.score(List.of(response(11, "İstanbul"), response(12, " ışık "), response(13, "ελλάδα"))));
+        assertEquals(5, key.score(List.of(response(11, "istanbul"), response(12, "Isik"))));
+        assertEquals(0, key.score(List.of(response(99, "İstanbul"))));
+    }
+
+    @Test
+    void scoresStoredAnswers() {
+        CompiledAnswerKey key = CompiledAnswerKey.compile(List.of(
+                key(1, 0, 4, "Ankara"),
+                key(2, 1, 6, "Gölcük")));
+        SubmittedAnswers answers = SubmittedAnswersCodec.decode(
+                SubmittedAnswersCodec.encode(List.of(response(1, "Ankara"), response(2, "GÖLCÜK"))));
+
+        assertEquals(10, key.score(answers));
+    }
+
+    private static QuizQuestionKey key(int questionId, int position, int points, String answer) {
+        return new QuizQuestionKey(null, 1, questionId, position, "TEXT", points, AnswerKeyService.normalize(answer));
+    }
+
+    private static Response response(Integer id, String text) {
+        Response response = new Response();
+        response.setId(id);
+        response.setResponse(text);
+        return response;
+    }
+}
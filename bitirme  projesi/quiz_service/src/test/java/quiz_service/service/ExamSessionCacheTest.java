@@ -0,0 +1,70 @@
+package quiz_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExamSessionCacheTest {
+
+    private final ExecutorService buildThreads = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "exam-session-test"));
+    private final ExamSessionCache cache = new ExamSessionCache(new ObjectMapper(), new SimpleMeterRegistry(),
+            buildThreads::execute, 10, 5);
+
+    @AfterEach
+    void shutdown() {
+        buildThreads.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneBuildOnTheExecutor() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ExamSessionCache.SessionPayload>> results = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.get(1, id -> {
+                    builds.incrementAndGet();
+                    assertEquals("exam-session-test", Thread.currentThread().getName());
+                    await(release);
+                    return Map.of("quizId", id);
+                })));
+            }
+            release.countDown();
+            for (Future<ExamSessionCache.SessionPayload> result : results) {
+                assertEquals("{\"quizId\":1}", new String(result.get(5, TimeUnit.SECONDS).body()));
+            }
+            assertEquals(1, builds.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedBuildReachesTheCallerAndIsNotCached() {
+        IllegalStateException failure = new IllegalStateException("question-service down");
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> cache.get(2, id -> {
+            throw failure;
+        })));
+
+        ExamSessionCache.SessionPayload payload = cache.get(2, id -> List.of(id));
+        assertEquals("[2]", new String(payload.body()));
+        assertTrue(payload.etag().startsWith("\""));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
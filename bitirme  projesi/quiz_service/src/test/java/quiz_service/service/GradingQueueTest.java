@@ -0,0 +1,169 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import quiz_service.dao.GradingTaskRepository;
+import quiz_service.dao.QuizDao;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GradingQueueTest {
+
+    private final GradingTaskRepository taskRepository = mock(GradingTaskRepository.class);
+    private final QuizDao quizDao = mock(QuizDao.class);
+    private final AnswerKeyService answerKeyService = mock(AnswerKeyService.class);
+    private final SubmissionWriter submissionWriter = mock(SubmissionWriter.class);
+    private final QuizAttemptService attemptService = mock(QuizAttemptService.class);
+    private final TaskTable table = new TaskTable();
+    private GradingQueue queue;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void reclaimsATaskOnceItsLeaseRunsOut() {
+        // Claimed by a worker that died just now; the lease is one second
+        table.task = task(GradingTask.PROCESSING, LocalDateTime.now(), 1);
+        start(1, 3);
+
+        verify(submissionWriter, after(300).never()).persistGradedTasks(anyList(), anyList(), anyMap());
+        verify(submissionWriter, timeout(3000)).persistGradedTasks(anyList(), anyList(), anyMap());
+        synchronized (table) {
+            assertEquals(2, table.task.getAttempts());
+        }
+        verify(attemptService, never()).reopenSubmit(any(), any());
+    }
+
+    @Test
+    void failingTasksAreRetriedThenFailedAndTheAttemptReopened() {
+        table.task = task(GradingTask.PENDING, null, 0);
+        when(submissionWriter.persistGradedTasks(anyList(), anyList(), anyMap()))
+                .thenThrow(new IllegalStateException("disk full"));
+        start(300, 3);
+
+        verify(attemptService, timeout(3000)).reopenSubmit(1, 42L);
+        synchronized (table) {
+            assertEquals(GradingTask.FAILED, table.task.getStatus());
+            assertEquals(3, table.task.getAttempts());
+            assertEquals("disk full", table.task.getError());
+            assertEquals(List.of(GradingTask.PENDING, GradingTask.PENDING, GradingTask.FAILED), table.released);
+        }
+        // Group store and the individual retry per claim
+        verify(submissionWriter, times(6)).persistGradedTasks(anyList(), anyList(), anyMap());
+    }
+
+    @Test
+    void submissionStoredElsewhereCompletesTheTaskWithoutRetry() {
+        table.task = task(GradingTask.PENDING, null, 0);
+        when(submissionWriter.persistGradedTasks(anyList(), anyList(), anyMap()))
+                .thenThrow(new IllegalStateException("duplicate key"));
+        QuizSubmission existing = new QuizSubmission();
+        existing.setId(77L);
+        QuizSubmissionRepository submissionRepository = mock(QuizSubmissionRepository.class);
+        when(submissionRepository.findFirstByUserIdAndQuizIdOrderByIdAsc(42L, 1)).thenReturn(Optional.of(existing));
+        when(taskRepository.completeWithExisting(eq(5L), anyString(), eq(77L), any())).thenReturn(1);
+        start(300, 3, submissionRepository);
+
+        verify(taskRepository, timeout(3000)).completeWithExisting(eq(5L), anyString(), eq(77L), any());
+        verify(taskRepository, never()).release(any(), any(), any(), any(), any());
+        verify(attemptService, never()).reopenSubmit(any(), any());
+    }
+
+    private void start(long leaseSeconds, int maxAttempts) {
+        start(leaseSeconds, maxAttempts, mock(QuizSubmissionRepository.class));
+    }
+
+    private void start(long leaseSeconds, int maxAttempts, QuizSubmissionRepository submissionRepository) {
+        Quiz quiz = new Quiz();
+        quiz.setId(1);
+        quiz.setPassingScore(50);
+        when(quizDao.findById(1)).thenReturn(Optional.of(quiz));
+        when(answerKeyService.getOrCreateKeys(quiz)).thenReturn(List.of(
+                new QuizQuestionKey(null, 1, 11, 0, "TEXT", 10, AnswerKeyService.normalize("Ankara"))));
+        when(taskRepository.findClaimableIds(any(), any())).thenAnswer(inv -> table.claimable(inv.getArgument(0)));
+        when(taskRepository.claim(anyList(), anyString(), any(), any()))
+                .thenAnswer(inv -> table.claim(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+        when(taskRepository.findByClaimTokenOrderByQuizIdAscIdAsc(anyString()))
+                .thenAnswer(inv -> table.claimedBy(inv.getArgument(0)));
+        when(taskRepository.release(any(), any(), any(), any(), any())).thenAnswer(inv -> table.release(
+                inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        queue = new GradingQueue(taskRepository, quizDao, submissionRepository, answerKeyService,
+                new CompiledAnswerKeyCache(100, meterRegistry), submissionWriter, mock(AvailableQuizCache.class),
+                attemptService, meterRegistry, 1, 10, 100, 10, maxAttempts, leaseSeconds);
+        queue.start();
+    }
+
+    private static GradingTask task(String status, LocalDateTime claimedAt, int attempts) {
+        byte[] answers = SubmittedAnswersCodec.encode(List.of(response(11, "Ankara")));
+        return new GradingTask(5L, 1, 42L, answers, status, status.equals(GradingTask.PROCESSING) ? "dead-worker" : null,
+                claimedAt, attempts, null, LocalDateTime.now(), null, null);
+    }
+
+    private static Response response(Integer id, String text) {
+        Response response = new Response();
+        response.setId(id);
+        response.setResponse(text);
+        return response;
+    }
+
+    // One grading_task row, claimed and released with the conditions of the repository queries.
+    private static final class TaskTable {
+        private GradingTask task;
+        private final List<String> released = new ArrayList<>();
+
+        synchronized List<Long> claimable(LocalDateTime staleBefore) {
+            return isClaimable(staleBefore) ? List.of(task.getId()) : List.of();
+        }
+
+        synchronized int claim(String token, LocalDateTime now, LocalDateTime staleBefore) {
+            if (!isClaimable(staleBefore)) {
+                return 0;
+            }
+            task.setStatus(GradingTask.PROCESSING);
+            task.setClaimToken(token);
+            task.setClaimedAt(now);
+            task.setAttempts(task.getAttempts() + 1);
+            return 1;
+        }
+
+        synchronized List<GradingTask> claimedBy(String token) {
+            if (!token.equals(task.getClaimToken())) {
+                return List.of();
+            }
+            return List.of(new GradingTask(task.getId(), task.getQuizId(), task.getUserId(), task.getAnswers(),
+                    task.getStatus(), token, task.getClaimedAt(), task.getAttempts(), null, task.getEnqueuedAt(), null, null));
+        }
+
+        synchronized int release(String token, String status, String error) {
+            if (!token.equals(task.getClaimToken())) {
+                return 0;
+            }
+            released.add(status);
+            task.setStatus(status);
+            task.setClaimToken(null);
+            task.setError(error);
+            return 1;
+        }
+
+        private boolean isClaimable(LocalDateTime staleBefore) {
+            return GradingTask.PENDING.equals(task.getStatus())
+                    || (GradingTask.PROCESSING.equals(task.getStatus()) && task.getClaimedAt().isBefore(staleBefore));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package quiz_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private final Map<String, Long> firedAt = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> fired = new LinkedBlockingQueue<>();
+    // 4 buckets of 10 ms: anything past 40 ms waits one or more rounds in its bucket
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>("wheel-test", 10, 4, payload -> {
+        firedAt.put(payload, System.nanoTime());
+        fired.add(payload);
+    }, Runnable::run);
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void firesEachTimeoutAfterItsDelayAcrossRounds() throws Exception {
+        long start = System.nanoTime();
+        wheel.start();
+        // Ticks 0, 5 (one round later) and 11 (two rounds later); order within one tick is not defined
+        wheel.schedule("115ms", 115);
+        wheel.schedule("5ms", 5);
+        wheel.schedule("55ms", 55);
+
+        assertEquals(List.of("5ms", "55ms", "115ms"), take(3));
+        for (String payload : List.of("5ms", "55ms", "115ms")) {
+            long delayMillis = Long.parseLong(payload.replace("ms", ""));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(firedAt.get(payload) - start);
+            assertTrue(elapsedMillis >= delayMillis, payload + " fired after " + elapsedMillis + " ms");
+        }
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() throws Exception {
+        wheel.start();
+        Thread.sleep(35); // Let the wheel move past bucket 0
+        wheel.schedule("now", 0);
+        wheel.schedule("past", -1000);
+
+        assertEquals(List.of("now", "past"), take(2));
+    }
+
+    @Test
+    void timeoutsScheduledBeforeStartKeepTheirDeadline() throws Exception {
+        wheel.schedule("early", 20);
+        Thread.sleep(60);
+        long started = System.nanoTime();
+        wheel.start();
+
+        assertEquals(List.of("early"), take(1));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(firedAt.get("early") - started) < 20, "caught up on the first tick");
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() throws Exception {
+        HashedTimingWheel.Timeout<String> beforeTransfer = wheel.schedule("cancelled early", 20);
+        assertTrue(beforeTransfer.cancel());
+        assertFalse(beforeTransfer.cancel());
+        wheel.start();
+        HashedTimingWheel.Timeout<String> inBucket = wheel.schedule("cancelled late", 60);
+        wheel.schedule("kept", 80);
+        Thread.sleep(25); // Transferred into its bucket by now
+        assertTrue(inBucket.cancel());
+
+        assertEquals(List.of("kept"), take(1));
+        assertNull(fired.poll(50, TimeUnit.MILLISECONDS));
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    void cancelAfterFiringReturnsFalse() throws Exception {
+        HashedTimingWheel.Timeout<String> timeout = wheel.schedule("once", 0);
+        wheel.start();
+
+        assertEquals(List.of("once"), take(1));
+        assertFalse(timeout.cancel());
+        assertEquals("once", timeout.payload());
+    }
+
+    private List<String> take(int count) throws InterruptedException {
+        List<String> payloads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String payload = fired.poll(2, TimeUnit.SECONDS);
+            assertNotNull(payload, "fired so far: " + payloads);
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+}
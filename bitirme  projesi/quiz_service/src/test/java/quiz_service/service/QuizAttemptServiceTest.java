@@ -0,0 +1,69 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import quiz_service.dao.QuizAttemptRepository;
+import quiz_service.dao.QuizDao;
+import quiz_service.dao.QuizSubmissionRepository;
+import quiz_service.model.QuizAttempt;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QuizAttemptServiceTest {
+
+    private final QuizAttemptRepository attemptRepository = mock(QuizAttemptRepository.class);
+    @SuppressWarnings("unchecked")
+    private final QuizAttemptService service = new QuizAttemptService(attemptRepository, mock(QuizDao.class),
+            mock(QuizSubmissionRepository.class), mock(ObjectProvider.class), Runnable::run, new SimpleMeterRegistry(),
+            30, 1000, 8, 30);
+
+    @AfterEach
+    void stop() {
+        service.stop();
+    }
+
+    @Test
+    void submitBeforeTheDeadlineClaimsTheAttempt() {
+        attempt(LocalDateTime.now().plusMinutes(5));
+        when(attemptRepository.updateStatus(7L, QuizAttemptService.SUBMITTED, QuizAttemptService.IN_PROGRESS)).thenReturn(1);
+
+        assertEquals(QuizAttemptService.SubmitClaim.CLAIMED, service.claimSubmit(1, 42L));
+    }
+
+    @Test
+    void submitWithinTheGracePeriodClaimsTheAttempt() {
+        attempt(LocalDateTime.now().minusSeconds(10));
+        when(attemptRepository.updateStatus(7L, QuizAttemptService.SUBMITTED, QuizAttemptService.IN_PROGRESS)).thenReturn(1);
+
+        assertEquals(QuizAttemptService.SubmitClaim.CLAIMED, service.claimSubmit(1, 42L));
+    }
+
+    @Test
+    void submitPastDeadlinePlusGraceIsClosedEvenIfTheTimerHasNotFired() {
+        attempt(LocalDateTime.now().minusMinutes(2));
+
+        assertEquals(QuizAttemptService.SubmitClaim.CLOSED, service.claimSubmit(1, 42L));
+        verify(attemptRepository, never()).updateStatus(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void attemptWithoutDeadlineStaysOpen() {
+        attempt(null);
+        when(attemptRepository.updateStatus(7L, QuizAttemptService.SUBMITTED, QuizAttemptService.IN_PROGRESS)).thenReturn(1);
+
+        assertEquals(QuizAttemptService.SubmitClaim.CLAIMED, service.claimSubmit(1, 42L));
+    }
+
+    private void attempt(LocalDateTime deadline) {
+        QuizAttempt attempt = new QuizAttempt(7L, 1, 42L, LocalDateTime.now().minusMinutes(30), deadline,
+                QuizAttemptService.IN_PROGRESS);
+        when(attemptRepository.findByQuizIdAndUserId(1, 42L)).thenReturn(Optional.of(attempt));
+    }
+}
@@ -0,0 +1,133 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import quiz_service.dao.QuizResultAggregateRepository;
+import quiz_service.model.QuizResultAggregate;
+import quiz_service.model.QuizSubmission;
+import quiz_service.model.ResultDeltaDto;
+import quiz_service.model.StudentSubmissionResultDto;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ResultStreamServiceTest {
+
+    private final QuizResultAggregateRepository aggregateRepository = mock(QuizResultAggregateRepository.class);
+    private final Map<SseEmitter, List<ResultDeltaDto>> frames = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class, (emitter, context) -> {
+        frames.put(emitter, Collections.synchronizedList(new ArrayList<>()));
+        doAnswer(invocation -> {
+            SseEmitter.SseEventBuilder event = invocation.getArgument(0);
+            event.build().stream().map(part -> part.getData()).filter(ResultDeltaDto.class::isInstance)
+                    .forEach(data -> frames.get(emitter).add((ResultDeltaDto) data));
+            return null;
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+    });
+    private ResultStreamService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+        emitters.close();
+    }
+
+    @Test
+    void burstIsSentAsOneFrameWithAtMostMaxRows() throws InterruptedException {
+        service = new ResultStreamService(aggregateRepository, new SimpleMeterRegistry(), 300, 60, 60, 10, 3);
+        when(aggregateRepository.findById(1)).thenReturn(Optional.of(aggregate(0, 0)));
+        SseEmitter first = service.subscribe(1);
+        SseEmitter second = service.subscribe(1);
+
+        when(aggregateRepository.findById(1)).thenReturn(Optional.of(aggregate(5, 9)));
+        service.submissionsStored(1, submissions(1, 2));
+        service.submissionsStored(1, submissions(3, 5));
+        service.submissionsStored(2, submissions(6, 6)); // No subscribers
+
+        List<ResultDeltaDto> received = awaitFrames(first, 2);
+        Thread.sleep(700); // Two more ticks without changes
+        assertEquals(2, received.size());
+        assertEquals(2, frames.get(second).size());
+        assertSame(received.get(1), frames.get(second).get(1)); // One frame for all subscribers
+
+        ResultDeltaDto snapshot = received.get(0);
+        assertEquals(1, snapshot.getSequence());
+        assertEquals(QuizResultAggregate.HISTOGRAM_BUCKETS, snapshot.getChangedBuckets().size());
+        assertEquals(List.of(), snapshot.getNewSubmissions());
+
+        ResultDeltaDto delta = received.get(1);
+        assertEquals(3, delta.getSequence()); // After the second subscriber's snapshot
+        assertEquals(5, delta.getTotalParticipants());
+        assertEquals(Map.of("90-100%", 5), delta.getChangedBuckets());
+        assertEquals(List.of(1L, 2L, 3L), delta.getNewSubmissions().stream().map(StudentSubmissionResultDto::getUserId).toList());
+        assertEquals(2, delta.getOmittedSubmissions());
+        // Snapshot per subscriber, then one read for the whole burst
+        verify(aggregateRepository, times(3)).findById(1);
+        verify(aggregateRepository, never()).findById(2);
+    }
+
+    @Test
+    void omittedCountStartsOverWithEachFrame() {
+        service = new ResultStreamService(aggregateRepository, new SimpleMeterRegistry(), 100, 60, 60, 10, 2);
+        when(aggregateRepository.findById(1)).thenReturn(Optional.of(aggregate(0, 0)));
+        SseEmitter emitter = service.subscribe(1);
+
+        service.submissionsStored(1, submissions(1, 4));
+        ResultDeltaDto full = awaitFrames(emitter, 2).get(1);
+        assertEquals(2, full.getNewSubmissions().size());
+        assertEquals(2, full.getOmittedSubmissions());
+
+        service.submissionsStored(1, submissions(5, 5));
+        ResultDeltaDto next = awaitFrames(emitter, 3).get(2);
+        assertEquals(List.of(5L), next.getNewSubmissions().stream().map(StudentSubmissionResultDto::getUserId).toList());
+        assertEquals(0, next.getOmittedSubmissions());
+        assertEquals(Map.of(), next.getChangedBuckets());
+
+        service.aggregateChanged(1); // Re-grade: totals only
+        ResultDeltaDto regraded = awaitFrames(emitter, 4).get(3);
+        assertEquals(List.of(), regraded.getNewSubmissions());
+        assertEquals(0, regraded.getOmittedSubmissions());
+    }
+
+    @Test
+    void refusesSubscribersAboveTheLimit() {
+        service = new ResultStreamService(aggregateRepository, new SimpleMeterRegistry(), 1000, 60, 60, 2, 10);
+
+        assertNotNull(service.subscribe(1));
+        assertNotNull(service.subscribe(2));
+        assertNull(service.subscribe(1));
+    }
+
+    private List<ResultDeltaDto> awaitFrames(SseEmitter emitter, int count) {
+        List<ResultDeltaDto> received = frames.get(emitter);
+        long deadline = System.currentTimeMillis() + 3000;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(count, received.size());
+        return received;
+    }
+
+    private static QuizResultAggregate aggregate(int participants, int bucket) {
+        int[] histogram = new int[QuizResultAggregate.HISTOGRAM_BUCKETS];
+        histogram[bucket] = participants;
+        return new QuizResultAggregate(1, participants, participants, participants * 10L, participants * 100L,
+                participants * 95.0, participants, 0, participants == 0 ? null : histogram);
+    }
+
+    private static List<QuizSubmission> submissions(long fromUser, long toUser) {
+        return LongStream.rangeClosed(fromUser, toUser)
+                .mapToObj(userId -> new QuizSubmission(userId, 1, userId, 10, 10, LocalDateTime.now(), null, "PASSED", null))
+                .toList();
+    }
+}
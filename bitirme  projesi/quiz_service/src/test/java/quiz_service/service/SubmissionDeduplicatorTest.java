@@ -0,0 +1,131 @@
+package quiz_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmissionDeduplicatorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger submits = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void duplicateOfAFinishedSubmitGetsItsResponse() {
+        SubmissionDeduplicator deduplicator = deduplicator(1000);
+
+        ResponseEntity<String> first = deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "graded"));
+        ResponseEntity<String> duplicate = deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "graded again"));
+
+        assertSame(first, duplicate);
+        assertEquals(1, submits.get());
+        assertEquals("graded", deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "x")).getBody());
+        assertEquals("other quiz", deduplicator.once(2, 7L, () -> submit(HttpStatus.CREATED, "other quiz")).getBody());
+    }
+
+    @Test
+    void duplicateWaitsForTheRunningSubmit() throws Exception {
+        SubmissionDeduplicator deduplicator = deduplicator(5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<ResponseEntity<String>> first = executor.submit(() -> deduplicator.once(1, 7L, () -> {
+            started.countDown();
+            await(release);
+            return submit(HttpStatus.CREATED, "graded");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<ResponseEntity<String>> duplicate = executor.submit(
+                () -> deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "graded again")));
+
+        assertThrows(TimeoutException.class, () -> duplicate.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertEquals("graded", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("graded", duplicate.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, submits.get());
+    }
+
+    @Test
+    void duplicateGetsConflictWhenTheRunningSubmitTakesTooLong() throws Exception {
+        SubmissionDeduplicator deduplicator = deduplicator(100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<ResponseEntity<String>> first = executor.submit(() -> deduplicator.once(1, 7L, () -> {
+            started.countDown();
+            await(release);
+            return submit(HttpStatus.CREATED, "graded");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(HttpStatus.CONFLICT, deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "x")).getStatusCode());
+        release.countDown();
+        assertEquals(HttpStatus.CREATED, first.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, submits.get());
+    }
+
+    @Test
+    void failedSubmitsAreNotKept() {
+        SubmissionDeduplicator deduplicator = deduplicator(1000);
+
+        assertEquals(HttpStatus.FORBIDDEN, deduplicator.once(1, 7L, () -> submit(HttpStatus.FORBIDDEN, null)).getStatusCode());
+        assertThrows(IllegalStateException.class, () -> deduplicator.once(1, 7L, () -> {
+            submits.incrementAndGet();
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(HttpStatus.CREATED, deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "graded")).getStatusCode());
+        assertEquals(3, submits.get());
+    }
+
+    @Test
+    void duplicateWaitingOnAFailingSubmitGetsAnError() throws Exception {
+        SubmissionDeduplicator deduplicator = deduplicator(5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<ResponseEntity<String>> first = executor.submit(() -> deduplicator.once(1, 7L, () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<ResponseEntity<String>> duplicate = executor.submit(
+                () -> deduplicator.once(1, 7L, () -> submit(HttpStatus.CREATED, "graded")));
+
+        assertThrows(TimeoutException.class, () -> duplicate.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, duplicate.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(0, submits.get());
+    }
+
+    private ResponseEntity<String> submit(HttpStatus status, String body) {
+        submits.incrementAndGet();
+        return new ResponseEntity<>(body, status);
+    }
+
+    private static SubmissionDeduplicator deduplicator(long waitMillis) {
+        return new SubmissionDeduplicator(100, 60, waitMillis, new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package quiz_service.service;
+
+import org.junit.jupiter.api.Test;
+import quiz_service.model.Response;
+import quiz_service.model.SubmittedAnswers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmittedAnswersCodecTest {
+
+    @Test
+    void keepsAnswerText() {
+        byte[] encoded = SubmittedAnswersCodec.encode(List.of(response(7, "Paris"), response(3, "İstanbul")));
+
+        SubmittedAnswers answers = SubmittedAnswersCodec.decode(encoded);
+        assertEquals("Paris", answers.answer(7));
+        assertEquals("İstanbul", answers.answer(3));
+        assertNull(answers.answer(5));
+        assertArrayEquals(encoded, SubmittedAnswersCodec.encode(answers));
+    }
+
+    @Test
+    void lastResponseOfAQuestionWinsAndInvalidOnesAreSkipped() {
+        List<Response> responses = Arrays.asList(response(2, "a"), null, response(1, "x"), response(2, "b"), response(4, null));
+
+        SubmittedAnswers answers = SubmittedAnswersCodec.decode(SubmittedAnswersCodec.encode(responses));
+        assertEquals(2, answers.size());
+        assertEquals(1, answers.questionIdAt(0));
+        assertEquals("b", answers.answer(2));
+    }
+
+    @Test
+    void decodesLegacyJson() throws Exception {
+        SubmittedAnswers answers = SubmittedAnswersCodec.decodeJson("{\"9\":\"Ankara\",\"2\":\"b\"}");
+
+        assertEquals(2, answers.questionIdAt(0));
+        assertEquals("Ankara", SubmittedAnswersCodec.decode(SubmittedAnswersCodec.encode(answers)).answer(9));
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> SubmittedAnswersCodec.decode(new byte[]{9, 0}));
+        assertThrows(IllegalArgumentException.class, () -> SubmittedAnswersCodec.decode(new byte[]{1, 0}));
+    }
+
+    private static Response response(Integer id, String text) {
+        Response response = new Response();
+        response.setId(id);
+        response.setResponse(text);
+        return response;
+    }
+}
@@ -1,5 +1,5 @@
 // src/components/ExamTakingPage.js
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import '../App.css'; // Global CSS
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import {
@@ -7,14 +7,17 @@ import {
     faSpinner, faExclamationTriangle, faStar // faStar ikonu
 } from '@fortawesome/free-solid-svg-icons'; // Icons
 
-function ExamTakingPage({ examData, onFinishExam }) {
+function ExamTakingPage({ examData, onFinishExam, onAutosave }) {
 
     // --- Prop Validation & Initial Setup ---
     const isValidExamData = examData && examData.quizId != null && Array.isArray(examData.questions);
     const questions = isValidExamData ? examData.questions : [];
-    const initialDurationSeconds = (isValidExamData && examData.durationMinutes != null && examData.durationMinutes > 0)
-        ? examData.durationMinutes * 60
-        : 0;
+    // Prefer the time left on the server-side attempt (survives reloads); fall back to the full duration
+    const initialDurationSeconds = (isValidExamData && examData.remainingSeconds != null)
+        ? examData.remainingSeconds
+        : (isValidExamData && examData.durationMinutes != null && examData.durationMinutes > 0)
+            ? examData.durationMinutes * 60
+            : 0;
 
     // --- State Management ---
     const [currentQuestionIndex, setCurrentQuestionIndex] = useState(0);
@@ -26,8 +29,17 @@ function ExamTakingPage({ examData, onFinishExam }) {
                 initial[q.id.toString()] = '';
             }
         });
+        // Answers autosaved before a reload or crash
+        (examData.savedAnswers || []).forEach(saved => {
+            if (saved?.id != null && initial[saved.id.toString()] !== undefined) {
+                initial[saved.id.toString()] = saved.response ?? '';
+            }
+        });
         return initial;
     });
+    const changedIdsRef = useRef(new Set()); // Answers changed since the last autosave
+    const answersRef = useRef(answers);
+    answersRef.current = answers;
     const [timeLeft, setTimeLeft] = useState(initialDurationSeconds);
     const [isSubmitting, setIsSubmitting] = useState(false);
 
@@ -90,12 +102,39 @@ function ExamTakingPage({ examData, onFinishExam }) {
             return;
         }
         const idStr = questionId.toString();
+        changedIdsRef.current.add(idStr);
         setAnswers(prevAnswers => ({
             ...prevAnswers,
             [idStr]: answer
         }));
     }, []);
 
+    // --- Autosave: send only the changed answers every few seconds ---
+    useEffect(() => {
+        if (!onAutosave || !isValidExamData) return;
+        const autosaveId = setInterval(() => {
+            if (changedIdsRef.current.size === 0) return;
+            const changed = [...changedIdsRef.current].map(id => ({ id: parseInt(id, 10), response: answersRef.current[id] ?? '' }));
+            changedIdsRef.current.clear();
+            onAutosave(changed).catch(err => {
+                const status = err?.response?.status;
+                if (status === 409) {
+                    // Attempt already submitted or expired: nothing more will be accepted
+                    console.warn("[ExamTakingPage] Autosave refused (409), stopping autosave.");
+                    clearInterval(autosaveId);
+                } else if (status === undefined || status >= 500) {
+                    // Network error or server failure: send these answers again next time
+                    console.warn("[ExamTakingPage] Autosave failed, will retry:", err);
+                    changed.forEach(c => changedIdsRef.current.add(c.id.toString()));
+                } else {
+                    // 400, 413, ...: the same request would be refused again
+                    console.warn(`[ExamTakingPage] Autosave rejected (${status}), not retrying:`, err);
+                }
+            });
+        }, 5000);
+        return () => clearInterval(autosaveId);
+    }, [onAutosave, isValidExamData]);
+
     // --- Exam Submission Handler ---
     const handleFinish = useCallback((autoSubmit = false) => {
         if (isSubmitting) {
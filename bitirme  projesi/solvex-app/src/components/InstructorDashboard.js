@@ -85,6 +85,18 @@ function InstructorDashboard({ user, onLogout }) {
 
     useEffect(() => { fetchAllQuestions(); }, [fetchAllQuestions]);
 
+    // Ranked server-side search for the question pool; resolves to question IDs, best match first,
+    // and whether the server only ranked the newest matches.
+    const searchQuestionPool = useCallback(async (term, { type, category } = {}) => {
+        const response = await axios.get(`${QUESTION_SERVICE_URL}/search`, {
+            params: { q: term, type: type || undefined, category: category || undefined, pageSize: 100 }
+        });
+        return {
+            ids: (response.data?.items || []).map(item => item.id.toString()),
+            truncated: Boolean(response.data?.truncated)
+        };
+    }, []);
+
     const fetchSavedExams = useCallback(async () => {
         setIsLoadingExams(true);
         setExamsError(null);
@@ -95,7 +107,7 @@ function InstructorDashboard({ user, onLogout }) {
                     ...exam,
                     id: exam.id.toString(),
                     status: determineDynamicStatusForView(exam),
-                    questions: exam.questionIds ? exam.questionIds.length : 0,
+                    questions: exam.questionCount ?? 0,
                     duration: exam.durationMinutes
                 }));
                 setSavedExams(formattedExams);
@@ -329,6 +341,50 @@ function InstructorDashboard({ user, onLogout }) {
         } finally { setIsLoadingResults(false); }
     };
 
+    const handleLoadMoreResults = async () => {
+        if (!selectedExamIdForResults || !detailedExamResults?.nextCursor) return;
+        try {
+            const response = await axios.get(`${QUIZ_SERVICE_URL}/${selectedExamIdForResults}/results`, {
+                params: { afterSubmissionId: detailedExamResults.nextCursor }
+            });
+            setDetailedExamResults(prev => ({
+                ...response.data,
+                studentResults: [...(prev?.studentResults || []), ...(response.data.studentResults || [])]
+            }));
+        } catch (error) {
+            console.error("[InstructorDashboard] Error loading more results for exam ID " + selectedExamIdForResults + ":", error);
+            alert("Could not load more student submissions.");
+        }
+    };
+
+    // --- Live results while the results page is open (Server-Sent Events) ---
+    useEffect(() => {
+        if (instructorView !== 'examResults' || !selectedExamIdForResults) return;
+        const source = new EventSource(`${QUIZ_SERVICE_URL}/${selectedExamIdForResults}/results/stream`);
+        source.addEventListener('delta', (event) => {
+            const delta = JSON.parse(event.data);
+            setDetailedExamResults(prev => {
+                if (!prev || prev.quizId !== delta.quizId) return prev;
+                const changedBuckets = delta.changedBuckets || {};
+                const knownIds = new Set((prev.studentResults || []).map(r => r.submissionId));
+                const newRows = (delta.newSubmissions || []).filter(r => !knownIds.has(r.submissionId));
+                return {
+                    ...prev,
+                    totalParticipants: delta.totalParticipants,
+                    averageScorePercentage: delta.averageScorePercentage,
+                    passedCount: delta.passedCount,
+                    failedCount: delta.failedCount,
+                    scoreDistribution: (prev.scoreDistribution || []).map(item =>
+                        changedBuckets[item.label] !== undefined ? { ...item, value: changedBuckets[item.label] } : item),
+                    // New rows belong at the end, so only append them once every page has been loaded
+                    studentResults: prev.nextCursor == null ? [...(prev.studentResults || []), ...newRows] : prev.studentResults
+                };
+            });
+        });
+        source.onerror = () => console.warn("[InstructorDashboard] Live results stream interrupted; the browser will reconnect.");
+        return () => source.close();
+    }, [instructorView, selectedExamIdForResults]);
+
     const currentQuestionIds = useMemo(() => new Set(currentExamQuestions.map(q => q.id)), [currentExamQuestions]);
 
     const renderContent = () => {
@@ -355,8 +411,8 @@ function InstructorDashboard({ user, onLogout }) {
             case 'createOrEditQuestion': return <CreateQuestionPage key={questionToEdit ? questionToEdit.id : 'new'} initialQuestionData={questionToEdit} onSave={handleSaveNewQuestion} onUpdate={handleUpdateQuestion} onBack={() => handleBackFromQuestionCreate(!!questionToEdit)} />;
             case 'viewExams':
                  return <ViewExamsPage examsData={savedExams} isLoading={isLoadingExams && savedExams.length === 0} error={examsError} onRetryFetch={fetchSavedExams} onEditExam={handleNavigateToEditExam} onDeleteExam={handleDeleteExam} onViewResults={handleViewExamResults} onNavigateToCreate={navigateToCreateExam} />;
-            case 'questionPool': return <QuestionPoolPage mode="poolManagement" questions={allQuestions} isLoading={isLoadingQuestions && allQuestions.length === 0} error={questionLoadError} onRetryFetch={fetchAllQuestions} onNavigateToCreate={navigateToCreateQuestion} onEditQuestion={handleNavigateToEditQuestion} onDeleteQuestion={handleDeleteQuestionFromPool} existingQuestionIdsInExam={new Set()} />;
-            case 'addToExamPool': return <QuestionPoolPage mode="addToExam" questions={allQuestions} isLoading={isLoadingQuestions && allQuestions.length === 0} error={questionLoadError} onRetryFetch={fetchAllQuestions} onAddSelectedToExam={handleAddQuestionsFromPool} onCancel={handleCancelAddFromPool} existingQuestionIdsInExam={currentQuestionIds} />;
+            case 'questionPool': return <QuestionPoolPage mode="poolManagement" questions={allQuestions} isLoading={isLoadingQuestions && allQuestions.length === 0} error={questionLoadError} onRetryFetch={fetchAllQuestions} onSearch={searchQuestionPool} onNavigateToCreate={navigateToCreateQuestion} onEditQuestion={handleNavigateToEditQuestion} onDeleteQuestion={handleDeleteQuestionFromPool} existingQuestionIdsInExam={new Set()} />;
+            case 'addToExamPool': return <QuestionPoolPage mode="addToExam" questions={allQuestions} isLoading={isLoadingQuestions && allQuestions.length === 0} error={questionLoadError} onRetryFetch={fetchAllQuestions} onSearch={searchQuestionPool} onAddSelectedToExam={handleAddQuestionsFromPool} onCancel={handleCancelAddFromPool} existingQuestionIdsInExam={currentQuestionIds} />;
             case 'examResults':
                 if (isLoadingResults) {
                     return <div className="loading-placeholder"><FontAwesomeIcon icon={faSpinner} spin size="2x" /><p>Loading results...</p></div>;
@@ -374,6 +430,7 @@ function InstructorDashboard({ user, onLogout }) {
                 return <InstructorExamResultsPage
                            examResults={detailedExamResults}
                            onBackToExams={() => handleMenuClick('viewExams')}
+                           onLoadMoreResults={handleLoadMoreResults}
                        />;
             case 'dashboardOverview':
             default:
@@ -12,7 +12,7 @@ import { Bar } from 'react-chartjs-2';
 
 ChartJS.register(CategoryScale, LinearScale, BarElement, Title, Tooltip, Legend);
 
-function InstructorExamResultsPage({ examResults, onBackToExams, onViewStudentSubmission }) {
+function InstructorExamResultsPage({ examResults, onBackToExams, onViewStudentSubmission, onLoadMoreResults }) {
 
     if (!examResults || Object.keys(examResults).length === 0) {
         return (
@@ -37,7 +37,8 @@ function InstructorExamResultsPage({ examResults, onBackToExams, onViewStudentSu
         averageScorePercentage, // Artık bu bir sayı (double) veya null olabilir
         passingScore,
         scoreDistribution = [],
-        studentResults = []
+        studentResults = [],
+        nextCursor
     } = examResults;
 
     const chartData = {
@@ -134,7 +135,7 @@ function InstructorExamResultsPage({ examResults, onBackToExams, onViewStudentSu
 
             {studentResults.length > 0 ? (
                 <div className="widget-card result-section">
-                    <h4><FontAwesomeIcon icon={faClipboardList} /> Student Submissions ({studentResults.length})</h4>
+                    <h4><FontAwesomeIcon icon={faClipboardList} /> Student Submissions ({studentResults.length}{nextCursor ? ` of ${totalParticipants}` : ''})</h4>
                     <div className="student-results-table-container">
                         <table className="student-results-table">
                              <thead>
@@ -179,6 +180,11 @@ function InstructorExamResultsPage({ examResults, onBackToExams, onViewStudentSu
                             </tbody>
                          </table>
                     </div>
+                    {nextCursor && onLoadMoreResults && (
+                        <button className="widget-button secondary" onClick={onLoadMoreResults}>
+                            Load More Submissions
+                        </button>
+                    )}
                 </div>
             ) : (
                 <div className="widget-card result-section">
@@ -12,6 +12,7 @@ function QuestionPoolPage({
     isLoading = false,
     error = null,
     onRetryFetch,
+    onSearch,                // Optional: (term, { type, category }) => Promise of { ids (ranked), truncated }
     // --- Mode Specific Props ---
     mode = 'poolManagement', // 'poolManagement' or 'addToExam'
     onNavigateToCreate,      // Used in 'poolManagement' mode
@@ -33,9 +34,31 @@ function QuestionPoolPage({
         setSelectedQuestions(new Set());
     }, [mode, questions]);
 
-    // --- Filtering and Category Logic (No changes needed) ---
+    // Ranked IDs from the server search (null: filter locally). Debounced so typing sends one request.
+    const [rankedIds, setRankedIds] = useState(null);
+    const [searchTruncated, setSearchTruncated] = useState(false); // Only the newest matches were ranked
+    useEffect(() => {
+        const term = searchTerm.trim();
+        if (!onSearch || term.length < 2) {
+            setRankedIds(null);
+            setSearchTruncated(false);
+            return;
+        }
+        let cancelled = false;
+        const timer = setTimeout(() => {
+            onSearch(term, { type: filterType, category: filterCategory })
+                .then(({ ids, truncated }) => { if (!cancelled) { setRankedIds(ids); setSearchTruncated(truncated); } })
+                .catch(() => { if (!cancelled) { setRankedIds(null); setSearchTruncated(false); } }); // Fall back to the local filter
+        }, 300);
+        return () => { cancelled = true; clearTimeout(timer); };
+    }, [onSearch, searchTerm, filterType, filterCategory]);
+
     const filteredQuestions = useMemo(() => {
         if (isLoading || error) return [];
+        if (rankedIds) {
+            const byId = new Map(questions.filter(Boolean).map(q => [q.id, q]));
+            return rankedIds.map(id => byId.get(id)).filter(Boolean);
+        }
         return questions.filter(q => {
             if (!q) return false;
             const searchMatch = (q.text?.toLowerCase().includes(searchTerm.toLowerCase())) ||
@@ -45,7 +68,7 @@ function QuestionPoolPage({
             const categoryMatch = filterCategory ? q.category === filterCategory : true;
             return searchMatch && typeMatch && categoryMatch;
         });
-    }, [questions, searchTerm, filterType, filterCategory, isLoading, error]);
+    }, [questions, searchTerm, filterType, filterCategory, isLoading, error, rankedIds]);
 
     const categories = useMemo(() => {
         if (isLoading || error) return [];
@@ -181,6 +204,11 @@ function QuestionPoolPage({
                          {selectedQuestions.size > 0 && ` - ${selectedQuestions.size} selected`}
                     </h4>
                  </div>
+                 {rankedIds && searchTruncated && (
+                     <p style={{ margin: '0 0 10px', color: 'var(--text-medium)' }}>
+                         Too many questions match; only the newest were ranked. Add words or filters to narrow the search.
+                     </p>
+                 )}
 
                  {isLoading && ( <div className="loading-placeholder" style={{ padding: '40px 20px' }}><FontAwesomeIcon icon={faSpinner} spin size="lg" /> Loading Questions...</div> )}
                  {!isLoading && error && ( <div className="error-message-container" style={{ padding: '20px' }}><FontAwesomeIcon icon={faExclamationTriangle} style={{ color: 'var(--error-color)', marginRight: '10px' }}/> Error: {error} {onRetryFetch && <button onClick={onRetryFetch} className="widget-button secondary" style={{marginLeft: '15px'}}>Retry</button>}</div> )}
@@ -153,7 +153,10 @@ function StudentDashboard({ user, onLogout }) {
                 console.error(`Incomplete question data received for exam ID ${quizId}. Missing fields in question:`, firstInvalidQ);
                 throw new Error("Incomplete question data received (missing essential fields like ID, type, title, or points).");
             }
-            setExamToTake(response.data);
+            // Starts (or resumes) the server-side timer; the server auto-submits when it runs out
+            const attempt = await axios.post(`${QUIZ_API_BASE_URL}/${quizId}/start`, null, { params: { userId } });
+            const saved = await axios.get(`${QUIZ_API_BASE_URL}/${quizId}/answers`, { params: { userId } });
+            setExamToTake({ ...response.data, remainingSeconds: attempt.data?.remainingSeconds ?? null, savedAnswers: saved.data || [] });
             setStudentView('takingExam');
             console.log(`[StudentDashboard] Successfully loaded exam ID ${quizId}. Navigating to 'takingExam'.`);
         } catch (err) {
@@ -264,9 +267,22 @@ function StudentDashboard({ user, onLogout }) {
                 responsesPayload,
                 { params: { userId } }
             );
-            const submissionResult = response.data;
+            let submissionResult = response.data;
+            if (response.status === 202 && submissionResult?.taskId != null) {
+                // Graded in the background: poll the grading status for a while
+                for (let i = 0; i < 15 && !['DONE', 'FAILED'].includes(submissionResult?.status); i++) {
+                    await new Promise(resolve => setTimeout(resolve, 1000));
+                    const statusResponse = await axios.get(`${QUIZ_API_BASE_URL}/grading/${submissionResult.taskId}`, { params: { userId } });
+                    submissionResult = statusResponse.data;
+                }
+                if (submissionResult?.status === 'FAILED') {
+                    throw new Error(submissionResult.message || 'Grading failed, please submit again.');
+                }
+            }
             console.log("[StudentDashboard] Backend submission successful. Result:", submissionResult);
-            alert(`Exam submitted successfully! Your score: ${submissionResult?.achievedPoints ?? 'N/A'} / ${submissionResult?.totalPossiblePoints ?? 'N/A'}. Check your history.`);
+            alert(submissionResult?.achievedPoints != null
+                ? `Exam submitted successfully! Your score: ${submissionResult.achievedPoints} / ${submissionResult?.totalPossiblePoints ?? 'N/A'}. Check your history.`
+                : "Exam submitted successfully! Your score will appear in your history once it has been graded.");
             setExamToTake(null);
             setStudentView('examHistory');
             setRefreshHistoryToggle(prev => !prev);
@@ -284,6 +300,12 @@ function StudentDashboard({ user, onLogout }) {
     }, [examToTake, userId, isLoadingExam, handleMenuClick]);
 
 
+    // --- Autosave (changed answers only; the server buffers them) ---
+    const handleAutosave = useCallback((changedResponses) => {
+        if (!examToTake?.quizId) return Promise.resolve();
+        return axios.put(`${QUIZ_API_BASE_URL}/${examToTake.quizId}/answers`, changedResponses, { params: { userId } });
+    }, [examToTake?.quizId, userId]);
+
     // --- Render Logic ---
     const renderStudentContent = () => {
         console.log(`[RenderLogic] View: ${studentView}, isLoadingAvailable: ${isLoadingAvailableExams}, isLoadingHistory: ${isLoadingHistory}, isLoadingExam: ${isLoadingExam}, isLoadingReview: ${isLoadingReview}`);
@@ -326,7 +348,7 @@ function StudentDashboard({ user, onLogout }) {
                 if (!examToTake) {
                     return <div className='error-message widget-card'>Error: Exam data could not be loaded to start.<button onClick={() => handleMenuClick('exams')} className="widget-button secondary" style={{marginTop: '15px'}}>Back to Exams</button></div>;
                 }
-                return <ExamTakingPage examData={examToTake} onFinishExam={handleFinishExam} />;
+                return <ExamTakingPage examData={examToTake} onFinishExam={handleFinishExam} onAutosave={handleAutosave} />;
             case 'exams':
             default:
                 return <StudentExamsPage examsData={availableExams} onStartExam={handleNavigateToTakeExam} />;